@@ -0,0 +1,103 @@
+package libgdx.thrust.copter;
+
+import libgdx.thrust.copter.headless.HeadlessAssets;
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * Миры для бенчмарков. Бенчмарки лежат в пакете игры, чтобы вызывать
+ * отдельные фазы шага мира, которые видны только внутри пакета.
+ * <p>
+ * Мир «заморожен»: без прокрутки и гравитации, метеоры не прилетают,
+ * а заданное число столбов и бонусов стоит правее самолёта и не
+ * пересекается с ним. Поэтому каждый шаг делает одну и ту же работу,
+ * а число сущностей не меняется за время замера. Плотность сущностей
+ * постоянна: чем их больше, тем дальше вправо они уходят, как при
+ * долгой игре.
+ */
+public class BenchmarkWorlds
+{
+    public static final float STEP = 1 / 60f;
+
+    private static final long SEED = 1;
+
+    // Сущности стоят в [MIN_X, MIN_X + SPACING * n), левее всех —
+    // правее самолёта.
+    private static final float MIN_X = 400;
+    private static final float SPACING = 50;
+
+    private static SpriteMetrics metrics;
+
+    private BenchmarkWorlds()
+    {
+    }
+
+    public static synchronized SpriteMetrics metrics()
+    {
+        if (metrics == null)
+        {
+            metrics = HeadlessAssets.loadMetrics(HeadlessAssets.DEFAULT_ATLAS);
+        }
+
+        return metrics;
+    }
+
+    public static WorldSettings frozenSettings(int entities)
+    {
+        return new WorldSettings()
+                .setScrollAcceleration(0)
+                .setGravity(0)
+                .setPickupRateScale(0)
+                .setMeteorInterval(1e9f, 2e9f)
+                .setPillarCapacity(entities + 1);
+    }
+
+    /**
+     * @return мир в состоянии ACTION с {@code pillars} столбами и {@code pickups} бонусами.
+     */
+    public static World create(WorldSettings settings, int pillars, int pickups)
+    {
+        PickupTypes types = PickupTypes.createDefault();
+        World world = new World(metrics(), types, settings, SEED);
+        RandomXS128 random = new RandomXS128(SEED);
+        float pillarsWidth = SPACING * pillars;
+        float pickupsWidth = SPACING * pickups;
+
+        // Первое касание переводит мир в ACTION.
+        world.tap(0, 0);
+        world.step(STEP);
+
+        for (int i = 0; i < pillars; i++)
+        {
+            world.getPillarSystem().place(MIN_X + random.nextFloat() * pillarsWidth,
+                    random.nextBoolean() ? PillarSystem.UP : PillarSystem.DOWN);
+        }
+
+        for (int i = 0; i < pickups; i++)
+        {
+            world.getPickupSystem().place(types.get(random.nextInt(types.size())),
+                    MIN_X + random.nextFloat() * pickupsWidth,
+                    80 + random.nextFloat() * 320);
+        }
+
+        return world;
+    }
+
+    /**
+     * @return мир в состоянии ACTION с {@code meteors} неподвижными метеорами.
+     */
+    public static World createWithMeteors(int meteors)
+    {
+        World world = create(frozenSettings(meteors).setMaxMeteors(meteors), 0, 0);
+        RandomXS128 random = new RandomXS128(SEED);
+        float meteorsWidth = SPACING * meteors;
+
+        for (int i = 0; i < meteors; i++)
+        {
+            world.getMeteorSystem().spawn(MIN_X + random.nextFloat() * meteorsWidth,
+                    80 + random.nextFloat() * 320, 0, 0,
+                    random.nextInt(World.METEOR_REGIONS.length));
+        }
+
+        return world;
+    }
+}
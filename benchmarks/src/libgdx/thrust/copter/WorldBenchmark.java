@@ -0,0 +1,168 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость шага мира и его систем в зависимости от числа сущностей.
+ * Время — нс на вызов, выделения видны с {@code -prof gc}
+ * как {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark
+{
+    /**
+     * Неподвижный мир: состав сущностей не меняется от шага к шагу.
+     */
+    @State(Scope.Thread)
+    public static class FrozenWorld
+    {
+        @Param({"10", "100", "1000", "10000"})
+        public int entities;
+
+        World world;
+        MovementSystem movement;
+        ScrollSystem scroll;
+        LifetimeSystem lifetime;
+
+        // Точка появления бонусов: широкая фаза отдаёт только
+        // столбы рядом с ней, сколько бы их ни было всего.
+        final Vector2 spawnProbe = new Vector2(820, 240);
+
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            world = BenchmarkWorlds.create(BenchmarkWorlds.frozenSettings(entities), entities, entities);
+
+            // Отдельные экземпляры общих систем обходят те же семейства,
+            // что и системы мира.
+            movement = new MovementSystem(world);
+            scroll = new ScrollSystem(world);
+            lifetime = new LifetimeSystem(world);
+        }
+    }
+
+    /**
+     * Мир, где бонус пытается появиться на каждом шаге. Лишние
+     * бонусы уничтожаются, чтобы их число не росло.
+     */
+    @State(Scope.Thread)
+    public static class SpawningWorld
+    {
+        @Param({"10", "100", "1000", "10000"})
+        public int entities;
+
+        World world;
+
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            WorldSettings settings = BenchmarkWorlds.frozenSettings(entities)
+                    .setPickupRateScale(1e6f);
+            world = BenchmarkWorlds.create(settings, entities, 0);
+        }
+
+        void trim()
+        {
+            world.getPickupSystem().clear();
+        }
+    }
+
+    /**
+     * Мир с роем неподвижных метеоров: каждый шаг двигает их всех
+     * и заново собирает для них широкую фазу.
+     */
+    @State(Scope.Thread)
+    public static class MeteorShowerWorld
+    {
+        @Param({"10", "100", "1000", "10000"})
+        public int entities;
+
+        World world;
+        MovementSystem movement;
+
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            world = BenchmarkWorlds.createWithMeteors(entities);
+            movement = new MovementSystem(world);
+        }
+    }
+
+    @Benchmark
+    public int step(FrozenWorld state)
+    {
+        state.world.step(BenchmarkWorlds.STEP);
+        return state.world.getTick();
+    }
+
+    @Benchmark
+    public int movement(FrozenWorld state)
+    {
+        state.movement.update(BenchmarkWorlds.STEP);
+        return state.world.getEntities().size();
+    }
+
+    @Benchmark
+    public int scroll(FrozenWorld state)
+    {
+        state.scroll.update(BenchmarkWorlds.STEP);
+        return state.world.getEntities().size();
+    }
+
+    @Benchmark
+    public int lifetime(FrozenWorld state)
+    {
+        state.lifetime.update(BenchmarkWorlds.STEP);
+        return state.world.getEntities().size();
+    }
+
+    @Benchmark
+    public int collision(FrozenWorld state)
+    {
+        state.world.getCollisionSystem().update(BenchmarkWorlds.STEP);
+        return state.world.getEntities().size();
+    }
+
+    @Benchmark
+    public int meteorShower(MeteorShowerWorld state)
+    {
+        state.movement.update(BenchmarkWorlds.STEP);
+        state.world.getCollisionSystem().update(BenchmarkWorlds.STEP);
+        return state.world.getMeteors().size();
+    }
+
+    @Benchmark
+    public boolean pickupSpawnCheck(FrozenWorld state)
+    {
+        return state.world.getCollisionSystem().isInsideHazard(state.spawnProbe);
+    }
+
+    @Benchmark
+    public int checkAndCreatePickup(SpawningWorld state)
+    {
+        state.world.getPickupSystem().lateUpdate(BenchmarkWorlds.STEP);
+
+        int size = state.world.getPickups().size();
+        state.trim();
+
+        return size;
+    }
+}
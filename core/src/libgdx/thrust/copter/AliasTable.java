@@ -0,0 +1,121 @@
+package libgdx.thrust.copter;
+
+/**
+ * Таблица псевдонимов (метод Уолкера/Воуза) для выбора индекса
+ * с заданными весами за O(1). Строится один раз за O(n).
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class AliasTable
+{
+    private final float[] probability;
+    private final int[] alias;
+
+    public AliasTable(float[] weights)
+    {
+        int n = weights.length;
+
+        if (n == 0)
+        {
+            throw new IllegalArgumentException("No weights");
+        }
+
+        probability = new float[n];
+        alias = new int[n];
+
+        float sum = 0;
+        for (float weight : weights)
+        {
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("Negative weight: " + weight);
+            }
+            sum += weight;
+        }
+
+        if (sum <= 0)
+        {
+            throw new IllegalArgumentException("Weights sum to zero");
+        }
+
+        // Масштабируем так, чтобы средний вес был равен 1,
+        // и раскладываем индексы на «малые» и «большие».
+        float[] scaled = new float[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+
+        for (int i = 0; i < n; i++)
+        {
+            scaled[i] = weights[i] * n / sum;
+
+            if (scaled[i] < 1)
+            {
+                small[smallSize++] = i;
+            }
+            else
+            {
+                large[largeSize++] = i;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0)
+        {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = scaled[more] + scaled[less] - 1;
+
+            if (scaled[more] < 1)
+            {
+                small[smallSize++] = more;
+            }
+            else
+            {
+                large[largeSize++] = more;
+            }
+        }
+
+        // Остатки из-за погрешности округления считаем полными колонками.
+        while (largeSize > 0)
+        {
+            int i = large[--largeSize];
+            probability[i] = 1;
+            alias[i] = i;
+        }
+
+        while (smallSize > 0)
+        {
+            int i = small[--smallSize];
+            probability[i] = 1;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * @param random равномерно распределённое число из [0, 1).
+     * @return выбранный индекс.
+     */
+    public int sample(float random)
+    {
+        float scaled = random * probability.length;
+        int column = (int) scaled;
+
+        if (column >= probability.length)
+        {
+            column = probability.length - 1;
+        }
+
+        return scaled - column < probability[column] ? column : alias[column];
+    }
+
+    public int size()
+    {
+        return probability.length;
+    }
+}
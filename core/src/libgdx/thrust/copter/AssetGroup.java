@@ -0,0 +1,143 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Именованная группа ресурсов, которые нужны экрану вместе.
+ * Экран захватывает группу при входе и отпускает при выходе:
+ * первый захват ставит ресурсы в очередь загрузки, последнее
+ * освобождение выгружает их. Ресурсы, общие для нескольких групп,
+ * считает сам {@link AssetManager}, поэтому выгрузка одной группы
+ * не трогает то, что держит другая.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class AssetGroup
+{
+    private final String name;
+    private final Array<AssetDescriptor<?>> assets = new Array<AssetDescriptor<?>>();
+
+    private int references;
+
+    public AssetGroup(String name)
+    {
+        this.name = name;
+    }
+
+    public <T> AssetGroup add(String fileName, Class<T> type)
+    {
+        return add(fileName, type, null);
+    }
+
+    public <T> AssetGroup add(String fileName, Class<T> type, AssetLoaderParameters<T> parameters)
+    {
+        if (references > 0)
+        {
+            throw new IllegalStateException("Group " + name + " is in use");
+        }
+
+        assets.add(new AssetDescriptor<T>(fileName, type, parameters));
+
+        return this;
+    }
+
+    /**
+     * Ставит ресурсы группы в очередь загрузки, если группа ещё
+     * никем не захвачена. Загружает их {@link AssetManager#update()}.
+     */
+    public void acquire(AssetManager manager)
+    {
+        if (references++ > 0)
+        {
+            return;
+        }
+
+        for (int i = 0; i < assets.size; i++)
+        {
+            manager.load(assets.get(i));
+        }
+    }
+
+    /**
+     * Выгружает ресурсы группы, если её больше никто не держит.
+     */
+    public void release(AssetManager manager)
+    {
+        if (references == 0)
+        {
+            throw new IllegalStateException("Group " + name + " is not acquired");
+        }
+
+        if (--references > 0)
+        {
+            return;
+        }
+
+        for (int i = 0; i < assets.size; i++)
+        {
+            manager.unload(assets.get(i).fileName);
+        }
+    }
+
+    public boolean isLoaded(AssetManager manager)
+    {
+        for (int i = 0; i < assets.size; i++)
+        {
+            AssetDescriptor<?> asset = assets.get(i);
+
+            if (!manager.isLoaded(asset.fileName, asset.type))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return доля загруженных ресурсов группы, от 0 до 1.
+     */
+    public float getProgress(AssetManager manager)
+    {
+        if (assets.size == 0)
+        {
+            return 1;
+        }
+
+        int loaded = 0;
+
+        for (int i = 0; i < assets.size; i++)
+        {
+            AssetDescriptor<?> asset = assets.get(i);
+
+            if (manager.isLoaded(asset.fileName, asset.type))
+            {
+                loaded++;
+            }
+        }
+
+        return loaded / (float) assets.size;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return сколько экранов сейчас держат группу.
+     */
+    public int getReferences()
+    {
+        return references;
+    }
+
+    public int size()
+    {
+        return assets.size;
+    }
+}
@@ -0,0 +1,117 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.BitmapFontLoader;
+import com.badlogic.gdx.assets.loaders.ParticleEffectLoader;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Все группы ресурсов игры в одном месте. Экран захватывает нужные
+ * ему группы при входе и отпускает при выходе, так что в памяти
+ * лежат только ресурсы текущего экрана. Новый уровень со своей
+ * темой — это новая группа здесь.
+ * <p>
+ * Группы хранят число захватов, поэтому принадлежат экземпляру
+ * игры, а не статическим полям: на Android статика переживает
+ * пересоздание приложения, а ресурсы — нет.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class AssetGroups
+{
+    /**
+     * Всё, без чего нельзя нарисовать первый кадр игры и ответить
+     * на первое касание. Грузится за экраном загрузки.
+     */
+    public static final String GAMEPLAY = "gameplay";
+
+    /**
+     * Музыка и звуки, которые понадобятся не сразу. Догружаются
+     * понемногу уже во время игры.
+     */
+    public static final String GAMEPLAY_AUDIO = "gameplay-audio";
+
+    /**
+     * Единственный атлас игры: все спрайты, страница шрифта и частицы,
+     * чтобы кадр рисовался без смены текстуры. Собирается задачей
+     * {@code gradle desktop:packTextures} из каталога images.
+     */
+    public static final String ATLAS = "ThrustCopter.pack";
+
+    private final AssetManager manager;
+    private final ObjectMap<String, AssetGroup> groups = new ObjectMap<String, AssetGroup>();
+
+    public AssetGroups(AssetManager manager)
+    {
+        this.manager = manager;
+
+        BitmapFontLoader.BitmapFontParameter font = new BitmapFontLoader.BitmapFontParameter();
+        font.atlasName = ATLAS;
+
+        ParticleEffectLoader.ParticleEffectParameter particles = new ParticleEffectLoader.ParticleEffectParameter();
+        particles.atlasFile = ATLAS;
+
+        add(new AssetGroup(GAMEPLAY)
+                .add(ATLAS, TextureAtlas.class)
+                .add("impact-40.fnt", BitmapFont.class, font)
+                .add(ParticleEffects.SMOKE, ParticleEffect.class, particles)
+                .add(ParticleEffects.EXPLOSION, ParticleEffect.class, particles)
+                .add("sounds/pop.ogg", Sound.class));
+
+        add(new AssetGroup(GAMEPLAY_AUDIO)
+                .add("sounds/crash.ogg", Sound.class)
+                .add("sounds/alarm.ogg", Sound.class)
+                .add("sounds/star.ogg", Sound.class)
+                .add("sounds/fuel.ogg", Sound.class)
+                .add("sounds/shield.ogg", Sound.class)
+                .add("sounds/journey.mp3", Music.class));
+    }
+
+    public void add(AssetGroup group)
+    {
+        if (groups.containsKey(group.getName()))
+        {
+            throw new IllegalArgumentException("Duplicate asset group: " + group.getName());
+        }
+
+        groups.put(group.getName(), group);
+    }
+
+    public AssetGroup get(String name)
+    {
+        AssetGroup group = groups.get(name);
+
+        if (group == null)
+        {
+            throw new IllegalArgumentException("Unknown asset group: " + name);
+        }
+
+        return group;
+    }
+
+    public void acquire(String name)
+    {
+        get(name).acquire(manager);
+    }
+
+    public void release(String name)
+    {
+        get(name).release(manager);
+    }
+
+    public boolean isLoaded(String name)
+    {
+        return get(name).isLoaded(manager);
+    }
+
+    public float getProgress(String name)
+    {
+        return get(name).getProgress(manager);
+    }
+}
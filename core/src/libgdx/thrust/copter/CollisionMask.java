@@ -0,0 +1,214 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Маска столкновений спрайта: непрозрачные пиксели, упакованные
+ * по 64 в {@code long}, построчно. Строка 0 — нижняя, как в мировых
+ * координатах. Проверка двух масок сдвигает строки одной под другую
+ * и делает AND, то есть стоит пару операций со словами на строку
+ * пересечения. Прямоугольники при этом проверяются заранее: маска —
+ * только узкая фаза.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class CollisionMask
+{
+    // Пиксели прозрачнее этого — сглаженные края, они не сталкиваются
+    public static final int ALPHA_THRESHOLD = 128;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] rows;
+
+    /**
+     * Пустая маска, пиксели ставятся через {@link #set(int, int)}.
+     */
+    public CollisionMask(int width, int height)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            throw new IllegalArgumentException("Mask size must be positive: " + width + "x" + height);
+        }
+
+        this.width = width;
+        this.height = height;
+
+        wordsPerRow = (width + 63) >> 6;
+        rows = new long[wordsPerRow * height];
+    }
+
+    /**
+     * @return маска, целиком заполняющая прямоугольник спрайта.
+     */
+    public static CollisionMask solid(int width, int height)
+    {
+        CollisionMask mask = new CollisionMask(width, height);
+
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                mask.set(x, y);
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Строит маску по области пиксмапа. Строки пиксмапа идут сверху
+     * вниз, поэтому верхняя строка области становится последней.
+     */
+    public static CollisionMask fromPixmap(Pixmap pixmap, int regionX, int regionY, int width, int height)
+    {
+        CollisionMask mask = new CollisionMask(width, height);
+
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                // getPixel всегда отдаёт RGBA8888, альфа в младшем байте
+                if ((pixmap.getPixel(regionX + x, regionY + y) & 0xff) >= ALPHA_THRESHOLD)
+                {
+                    mask.set(x, height - 1 - y);
+                }
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * @param y строка снизу.
+     */
+    public void set(int x, int y)
+    {
+        check(x, y);
+        rows[y * wordsPerRow + (x >> 6)] |= 1L << (x & 63);
+    }
+
+    /**
+     * @param y строка снизу.
+     */
+    public boolean get(int x, int y)
+    {
+        check(x, y);
+        return (rows[y * wordsPerRow + (x >> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    /**
+     * @return нижняя непрозрачная строка столбца {@code x} или -1,
+     * если столбец пустой.
+     */
+    public int getColumnBottom(int x)
+    {
+        for (int y = 0; y < height; y++)
+        {
+            if (get(x, y))
+            {
+                return y;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return верхняя непрозрачная строка столбца {@code x} или -1,
+     * если столбец пустой.
+     */
+    public int getColumnTop(int x)
+    {
+        for (int y = height - 1; y >= 0; y--)
+        {
+            if (get(x, y))
+            {
+                return y;
+            }
+        }
+
+        return -1;
+    }
+
+    private void check(int x, int y)
+    {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+        {
+            throw new IllegalArgumentException("Pixel outside " + width + "x" + height + " mask: " + x + ", " + y);
+        }
+    }
+
+    /**
+     * Пересекаются ли непрозрачные пиксели двух спрайтов. Координаты —
+     * левые нижние углы; сдвиг между спрайтами округляется до пикселя
+     * так же, как их рисует батч.
+     */
+    public boolean overlaps(float x, float y, CollisionMask other, float otherX, float otherY)
+    {
+        int dx = MathUtils.floor(otherX) - MathUtils.floor(x);
+        int dy = MathUtils.floor(otherY) - MathUtils.floor(y);
+
+        int fromRow = Math.max(0, dy);
+        int toRow = Math.min(height, dy + other.height);
+        int fromColumn = Math.max(0, dx);
+        int toColumn = Math.min(width, dx + other.width);
+
+        for (int row = fromRow; row < toRow; row++)
+        {
+            // Биты за правым краем пересечения нули в одной из масок,
+            // поэтому последнее слово отдельно не обрезаем.
+            for (int column = fromColumn; column < toColumn; column += 64)
+            {
+                if ((bits(row, column) & other.bits(row - dy, column - dx)) != 0)
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return 64 пикселя строки начиная со столбца {@code column};
+     * столбцы за краями маски пустые.
+     */
+    private long bits(int row, int column)
+    {
+        int word = column >> 6;
+        int shift = column & 63;
+
+        long bits = word(row, word) >>> shift;
+
+        if (shift != 0)
+        {
+            bits |= word(row, word + 1) << (64 - shift);
+        }
+
+        return bits;
+    }
+
+    private long word(int row, int word)
+    {
+        if (word < 0 || word >= wordsPerRow)
+        {
+            return 0;
+        }
+
+        return rows[row * wordsPerRow + word];
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+}
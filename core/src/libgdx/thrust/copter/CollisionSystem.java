@@ -0,0 +1,161 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Столкновения сущностей с самолётом. Широкая фаза — две
+ * {@link SpatialHash} в координатах прокрутки под номерами сущностей:
+ * неподвижные в мире лежат в своей с появления до ухода, а для
+ * летящих со своей скоростью сетка собирается заново каждый шаг.
+ * Узкая фаза — прямоугольник, затем маска пикселей. Задевший самолёт
+ * {@link Component#HAZARD} заканчивает игру, {@link Component#PICKUP}
+ * подбирается и исчезает.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class CollisionSystem extends WorldSystem
+{
+    private final Entities entities;
+    private final Family fixed;
+    private final Family moving;
+
+    private final SpatialHash fixedHash;
+    private final SpatialHash movingHash;
+    private final IntArray candidates = new IntArray();
+    private final Rectangle colliderRect = new Rectangle();
+
+    public CollisionSystem(World world)
+    {
+        super(world, FrameStat.COLLISION);
+
+        entities = world.getEntities();
+
+        int collider = Component.mask(Component.POSITION, Component.COLLIDER);
+        fixed = entities.getFamily(collider, Component.VELOCITY.bit());
+        moving = entities.getFamily(collider | Component.VELOCITY.bit(), 0);
+
+        fixedHash = world.createBroadphase();
+        movingHash = world.createBroadphase();
+
+        fixed.addListener(new Family.Listener()
+        {
+            @Override
+            public void added(int entity)
+            {
+                insertFixed(entity);
+            }
+
+            @Override
+            public void removed(int entity)
+            {
+                fixedHash.remove(entity);
+            }
+        });
+    }
+
+    /**
+     * Неподвижная в мире сущность ложится в сетку один раз, при появлении.
+     */
+    private void insertFixed(int entity)
+    {
+        fixedHash.insert(entity, entities.getX(entity) + world.getScrollDistance(), entities.getWidth(entity));
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        float scrollDistance = world.getScrollDistance();
+
+        movingHash.clear();
+
+        for (int i = 0; i < moving.size(); i++)
+        {
+            int entity = moving.get(i);
+
+            movingHash.insert(entity, entities.getX(entity) + scrollDistance, entities.getWidth(entity));
+        }
+
+        collide(fixedHash);
+        collide(movingHash);
+    }
+
+    private void collide(SpatialHash hash)
+    {
+        world.queryPlane(hash, candidates);
+
+        Rectangle planeRect = world.getPlaneRect();
+
+        for (int i = 0; i < candidates.size; i++)
+        {
+            int entity = candidates.get(i);
+
+            float x = entities.getX(entity);
+            float y = entities.getY(entity);
+
+            colliderRect.set(x, y, entities.getWidth(entity), entities.getHeight(entity));
+
+            if (!planeRect.overlaps(colliderRect) || !world.hitsPlane(entities.getMask(entity), x, y))
+            {
+                continue;
+            }
+
+            if (entities.has(entity, Component.HAZARD))
+            {
+                world.endGame(entities.getHazard(entity));
+            }
+
+            if (entities.has(entity, Component.PICKUP))
+            {
+                world.pickUp(entities.getPickupType(entity));
+                entities.destroy(entity);
+            }
+        }
+    }
+
+    /**
+     * @return лежит ли точка экрана внутри неподвижной опасной сущности.
+     */
+    public boolean isInsideHazard(Vector2 position)
+    {
+        float x = position.x + world.getScrollDistance();
+
+        fixedHash.query(x, x, candidates);
+
+        for (int i = 0; i < candidates.size; i++)
+        {
+            int entity = candidates.get(i);
+
+            if (!entities.has(entity, Component.HAZARD))
+            {
+                continue;
+            }
+
+            colliderRect.set(entities.getX(entity), entities.getY(entity),
+                    entities.getWidth(entity), entities.getHeight(entity));
+
+            if (colliderRect.contains(position))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void reset()
+    {
+        fixedHash.clear();
+        movingHash.clear();
+    }
+
+    @Override
+    public void dispose()
+    {
+        fixedHash.clear();
+        movingHash.clear();
+    }
+}
@@ -0,0 +1,52 @@
+package libgdx.thrust.copter;
+
+/**
+ * Компоненты сущностей {@link Entities}. Данные компонента лежат
+ * в столбцах хранилища по номеру сущности, а здесь только его бит
+ * в наборе компонентов сущности, по которому её находят
+ * {@link Family семейства}.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public enum Component
+{
+    /** Экранные координаты левого нижнего угла и они же до шага. */
+    POSITION,
+    /** Собственная скорость в пикселях в секунду. */
+    VELOCITY,
+    /** Прокручивается вместе с миром. */
+    SCROLL,
+    /** Прямоугольник и маска столкновений с самолётом. */
+    COLLIDER,
+    /** Убивает самолёт при касании. */
+    HAZARD,
+    /** Подбирается самолётом при касании и исчезает. */
+    PICKUP,
+    /** Исчезает, уйдя за левый край экрана. */
+    LIFETIME,
+    /** Рисуется регионом атласа на одном из слоёв. */
+    SPRITE;
+
+    private final int bit = 1 << ordinal();
+
+    public int bit()
+    {
+        return bit;
+    }
+
+    /**
+     * @return набор из битов {@code components}.
+     */
+    public static int mask(Component... components)
+    {
+        int mask = 0;
+
+        for (Component component : components)
+        {
+            mask |= component.bit;
+        }
+
+        return mask;
+    }
+}
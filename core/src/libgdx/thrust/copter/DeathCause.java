@@ -0,0 +1,12 @@
+package libgdx.thrust.copter;
+
+/**
+ * Причина окончания игры.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public enum DeathCause
+{
+    NONE, TERRAIN, PILLAR, METEOR
+}
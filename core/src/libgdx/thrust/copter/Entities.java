@@ -0,0 +1,512 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Хранилище сущностей мира. Сущность — номер, её компоненты —
+ * ячейки с этим номером в примитивных столбцах, по столбцу на поле
+ * компонента, и бит в наборе компонентов. Номера уничтоженных
+ * сущностей уходят в список свободных и выдаются снова вместе
+ * с ячейками всех столбцов, так что пулом служат сами столбцы:
+ * в установившемся режиме ни сущности, ни компоненты не выделяют
+ * память. Столбцы растут вдвое, только пока растёт число сущностей.
+ * <p>
+ * Системы не спрашивают, какого вида сущность, а обходят
+ * {@link Family семейства} по набору компонентов, поэтому новый вид
+ * сущностей — это новый набор компонентов, а не новый цикл в каждой
+ * системе.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class Entities
+{
+    /** Слой под землёй: рисуется до полос земли и самолёта. */
+    public static final byte BACK_LAYER = 0;
+    /** Слой над самолётом. */
+    public static final byte FRONT_LAYER = 1;
+
+    private final Array<Family> families = new Array<Family>();
+    // Имена регионов спрайтов; в компоненте лежит индекс в этом списке
+    private final Array<String> regionNames = new Array<String>();
+    private final IntArray free = new IntArray();
+    private int capacity;
+    private int size;
+
+    private boolean[] alive;
+    private int[] components;
+
+    // POSITION
+    private float[] x;
+    private float[] y;
+    private float[] previousX;
+    private float[] previousY;
+
+    // VELOCITY
+    private float[] velocityX;
+    private float[] velocityY;
+
+    // COLLIDER
+    private int[] widths;
+    private int[] heights;
+    private CollisionMask[] masks;
+
+    // HAZARD
+    private DeathCause[] hazards;
+
+    // PICKUP
+    private PickupType[] pickupTypes;
+
+    // LIFETIME: сущность уходит, когда x + extent левее края
+    private float[] extents;
+
+    // SPRITE
+    private int[] regions;
+    private byte[] layers;
+
+    /**
+     * @param capacity сколько сущностей выделить заранее.
+     */
+    public Entities(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Entity capacity must be positive: " + capacity);
+        }
+
+        alive = new boolean[0];
+        components = new int[0];
+        x = new float[0];
+        y = new float[0];
+        previousX = new float[0];
+        previousY = new float[0];
+        velocityX = new float[0];
+        velocityY = new float[0];
+        widths = new int[0];
+        heights = new int[0];
+        masks = new CollisionMask[0];
+        hazards = new DeathCause[0];
+        pickupTypes = new PickupType[0];
+        extents = new float[0];
+        regions = new int[0];
+        layers = new byte[0];
+
+        grow(capacity);
+    }
+
+    /**
+     * @return семейство сущностей с компонентами {@code required}
+     * и без {@code excluded}, например {@code Component.mask(POSITION, SPRITE)}.
+     * Одинаковые семейства — один объект.
+     */
+    public Family getFamily(int required, int excluded)
+    {
+        for (int i = 0; i < families.size; i++)
+        {
+            if (families.get(i).is(required, excluded))
+            {
+                return families.get(i);
+            }
+        }
+
+        Family family = new Family(required, excluded);
+        family.ensureCapacity(capacity);
+
+        for (int entity = 0; entity < capacity; entity++)
+        {
+            if (alive[entity])
+            {
+                family.update(entity, components[entity]);
+            }
+        }
+
+        families.add(family);
+
+        return family;
+    }
+
+    public Family getFamily(Component... required)
+    {
+        return getFamily(Component.mask(required), 0);
+    }
+
+    /**
+     * @return номер новой сущности без компонентов.
+     */
+    public int create()
+    {
+        if (free.size == 0)
+        {
+            grow(capacity * 2);
+        }
+
+        int entity = free.pop();
+
+        alive[entity] = true;
+        components[entity] = 0;
+        size++;
+
+        return entity;
+    }
+
+    public void destroy(int entity)
+    {
+        checkAlive(entity);
+
+        components[entity] = 0;
+        updateFamilies(entity);
+
+        masks[entity] = null;
+        hazards[entity] = null;
+        pickupTypes[entity] = null;
+
+        alive[entity] = false;
+        free.add(entity);
+        size--;
+    }
+
+    /**
+     * Уничтожает все сущности и выдаёт номера заново с нуля: новая
+     * игра с тем же зерном раздаёт те же номера в том же порядке.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < families.size; i++)
+        {
+            families.get(i).clear();
+        }
+
+        free.clear();
+
+        for (int entity = capacity - 1; entity >= 0; entity--)
+        {
+            alive[entity] = false;
+            components[entity] = 0;
+            masks[entity] = null;
+            hazards[entity] = null;
+            pickupTypes[entity] = null;
+            free.add(entity);
+        }
+
+        size = 0;
+    }
+
+    private void grow(int newCapacity)
+    {
+        alive = copyOf(alive, newCapacity);
+        components = copyOf(components, newCapacity);
+        x = copyOf(x, newCapacity);
+        y = copyOf(y, newCapacity);
+        previousX = copyOf(previousX, newCapacity);
+        previousY = copyOf(previousY, newCapacity);
+        velocityX = copyOf(velocityX, newCapacity);
+        velocityY = copyOf(velocityY, newCapacity);
+        widths = copyOf(widths, newCapacity);
+        heights = copyOf(heights, newCapacity);
+        extents = copyOf(extents, newCapacity);
+        regions = copyOf(regions, newCapacity);
+        layers = copyOf(layers, newCapacity);
+
+        CollisionMask[] grownMasks = new CollisionMask[newCapacity];
+        System.arraycopy(masks, 0, grownMasks, 0, capacity);
+        masks = grownMasks;
+
+        DeathCause[] grownHazards = new DeathCause[newCapacity];
+        System.arraycopy(hazards, 0, grownHazards, 0, capacity);
+        hazards = grownHazards;
+
+        PickupType[] grownPickupTypes = new PickupType[newCapacity];
+        System.arraycopy(pickupTypes, 0, grownPickupTypes, 0, capacity);
+        pickupTypes = grownPickupTypes;
+
+        for (int i = 0; i < families.size; i++)
+        {
+            families.get(i).ensureCapacity(newCapacity);
+        }
+
+        // Растём, только когда свободных нет; номера выдаются с конца
+        // списка, то есть по возрастанию.
+        for (int entity = newCapacity - 1; entity >= capacity; entity--)
+        {
+            free.add(entity);
+        }
+
+        capacity = newCapacity;
+    }
+
+    private static boolean[] copyOf(boolean[] array, int length)
+    {
+        boolean[] copy = new boolean[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length)
+    {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static float[] copyOf(float[] array, int length)
+    {
+        float[] copy = new float[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static byte[] copyOf(byte[] array, int length)
+    {
+        byte[] copy = new byte[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private void add(int entity, Component component)
+    {
+        checkAlive(entity);
+
+        if ((components[entity] & component.bit()) == 0)
+        {
+            components[entity] |= component.bit();
+            updateFamilies(entity);
+        }
+    }
+
+    public void remove(int entity, Component component)
+    {
+        checkAlive(entity);
+
+        if ((components[entity] & component.bit()) != 0)
+        {
+            components[entity] &= ~component.bit();
+            updateFamilies(entity);
+        }
+    }
+
+    private void updateFamilies(int entity)
+    {
+        for (int i = 0; i < families.size; i++)
+        {
+            families.get(i).update(entity, components[entity]);
+        }
+    }
+
+    private void checkAlive(int entity)
+    {
+        if (entity < 0 || entity >= capacity || !alive[entity])
+        {
+            throw new IllegalArgumentException("No such entity: " + entity);
+        }
+    }
+
+    public boolean has(int entity, Component component)
+    {
+        return (components[entity] & component.bit()) != 0;
+    }
+
+    /**
+     * Ставит сущность в экранные координаты {@code (x, y)}; положение
+     * до шага совпадает с ними.
+     */
+    public void setPosition(int entity, float x, float y)
+    {
+        this.x[entity] = x;
+        this.y[entity] = y;
+        previousX[entity] = x;
+        previousY[entity] = y;
+
+        add(entity, Component.POSITION);
+    }
+
+    /**
+     * @param velocityX скорость в пикселях в секунду.
+     */
+    public void setVelocity(int entity, float velocityX, float velocityY)
+    {
+        this.velocityX[entity] = velocityX;
+        this.velocityY[entity] = velocityY;
+
+        add(entity, Component.VELOCITY);
+    }
+
+    public void setScroll(int entity)
+    {
+        add(entity, Component.SCROLL);
+    }
+
+    public void setCollider(int entity, int width, int height, CollisionMask mask)
+    {
+        widths[entity] = width;
+        heights[entity] = height;
+        masks[entity] = mask;
+
+        add(entity, Component.COLLIDER);
+    }
+
+    public void setHazard(int entity, DeathCause cause)
+    {
+        hazards[entity] = cause;
+
+        add(entity, Component.HAZARD);
+    }
+
+    public void setPickup(int entity, PickupType type)
+    {
+        pickupTypes[entity] = type;
+
+        add(entity, Component.PICKUP);
+    }
+
+    /**
+     * @param extent на сколько правее x правый край, который должен
+     *               уйти за экран; 0 — сущность уходит левым краем.
+     */
+    public void setLifetime(int entity, float extent)
+    {
+        extents[entity] = extent;
+
+        add(entity, Component.LIFETIME);
+    }
+
+    /**
+     * Системы регистрируют регионы своих спрайтов заранее, при
+     * создании, и ставят сущностям номера: отрисовка находит регион
+     * по номеру в массиве, а не по имени в таблице.
+     *
+     * @param name имя региона атласа.
+     * @return номер региона для {@link #setSprite(int, int, byte)};
+     * повторная регистрация имени возвращает тот же номер.
+     */
+    public int registerRegion(String name)
+    {
+        int region = regionNames.indexOf(name, false);
+
+        if (region < 0)
+        {
+            region = regionNames.size;
+            regionNames.add(name);
+        }
+
+        return region;
+    }
+
+    /**
+     * @return имена зарегистрированных регионов по их номерам.
+     * После создания систем список не меняется.
+     */
+    public Array<String> getRegionNames()
+    {
+        return regionNames;
+    }
+
+    /**
+     * @param region номер из {@link #registerRegion(String)}.
+     * @param layer  {@link #BACK_LAYER} или {@link #FRONT_LAYER}.
+     */
+    public void setSprite(int entity, int region, byte layer)
+    {
+        regions[entity] = region;
+        layers[entity] = layer;
+
+        add(entity, Component.SPRITE);
+    }
+
+    /**
+     * Запоминает координаты перед шагом для интерполяции. Копирует
+     * столбцы целиком: ячейки без сущностей никому не мешают.
+     */
+    public void savePositions()
+    {
+        System.arraycopy(x, 0, previousX, 0, capacity);
+        System.arraycopy(y, 0, previousY, 0, capacity);
+    }
+
+    public void move(int entity, float dx, float dy)
+    {
+        x[entity] += dx;
+        y[entity] += dy;
+    }
+
+    public float getX(int entity)
+    {
+        return x[entity];
+    }
+
+    public float getY(int entity)
+    {
+        return y[entity];
+    }
+
+    public float getPreviousX(int entity)
+    {
+        return previousX[entity];
+    }
+
+    public float getPreviousY(int entity)
+    {
+        return previousY[entity];
+    }
+
+    public float getVelocityX(int entity)
+    {
+        return velocityX[entity];
+    }
+
+    public float getVelocityY(int entity)
+    {
+        return velocityY[entity];
+    }
+
+    public int getWidth(int entity)
+    {
+        return widths[entity];
+    }
+
+    public int getHeight(int entity)
+    {
+        return heights[entity];
+    }
+
+    public CollisionMask getMask(int entity)
+    {
+        return masks[entity];
+    }
+
+    public DeathCause getHazard(int entity)
+    {
+        return hazards[entity];
+    }
+
+    public PickupType getPickupType(int entity)
+    {
+        return pickupTypes[entity];
+    }
+
+    public float getExtent(int entity)
+    {
+        return extents[entity];
+    }
+
+    /**
+     * @return номер региона из {@link #registerRegion(String)}.
+     */
+    public int getRegion(int entity)
+    {
+        return regions[entity];
+    }
+
+    public byte getLayer(int entity)
+    {
+        return layers[entity];
+    }
+
+    /**
+     * @return сколько сущностей сейчас в мире.
+     */
+    public int size()
+    {
+        return size;
+    }
+}
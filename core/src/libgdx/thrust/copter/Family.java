@@ -0,0 +1,153 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Семейство сущностей: все, у кого есть компоненты {@code required}
+ * и нет ни одного из {@code excluded}. Номера членов лежат плотным
+ * массивом, и системы обходят его по индексу, не глядя на остальные
+ * сущности. Хранилище обновляет семейство при каждой смене набора
+ * компонентов, поэтому вступление и выход — O(1): вышедшего
+ * заменяет последний член, и порядок обхода не сохраняется.
+ * Удалять текущую сущность при обходе можно, если идти с конца.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class Family
+{
+    /**
+     * Кому нужно знать о членах семейства сразу, например широкой
+     * фазе. {@link Entities#clear()} слушателей не зовёт: при новой
+     * игре слушатели очищают своё в {@link WorldSystem#reset()}.
+     */
+    public interface Listener
+    {
+        void added(int entity);
+
+        void removed(int entity);
+    }
+
+    private final int required;
+    private final int excluded;
+
+    private final IntArray members = new IntArray();
+    private final Array<Listener> listeners = new Array<Listener>(2);
+
+    // Индекс каждой сущности в members или -1
+    private int[] indices = new int[0];
+
+    Family(int required, int excluded)
+    {
+        if (required == 0)
+        {
+            throw new IllegalArgumentException("Family must require a component");
+        }
+
+        if ((required & excluded) != 0)
+        {
+            throw new IllegalArgumentException("Family can't require an excluded component");
+        }
+
+        this.required = required;
+        this.excluded = excluded;
+    }
+
+    public void addListener(Listener listener)
+    {
+        listeners.add(listener);
+    }
+
+    boolean is(int required, int excluded)
+    {
+        return this.required == required && this.excluded == excluded;
+    }
+
+    /**
+     * Растёт вместе с хранилищем, поэтому при обновлении не выделяет.
+     */
+    void ensureCapacity(int capacity)
+    {
+        if (capacity <= indices.length)
+        {
+            return;
+        }
+
+        int[] grown = new int[capacity];
+        System.arraycopy(indices, 0, grown, 0, indices.length);
+
+        for (int i = indices.length; i < capacity; i++)
+        {
+            grown[i] = -1;
+        }
+
+        indices = grown;
+    }
+
+    /**
+     * Принимает или исключает сущность с набором {@code components}.
+     */
+    void update(int entity, int components)
+    {
+        boolean matches = (components & required) == required && (components & excluded) == 0;
+        boolean member = indices[entity] >= 0;
+
+        if (matches && !member)
+        {
+            indices[entity] = members.size;
+            members.add(entity);
+
+            for (int i = 0; i < listeners.size; i++)
+            {
+                listeners.get(i).added(entity);
+            }
+        }
+        else if (!matches && member)
+        {
+            int index = indices[entity];
+            int last = members.pop();
+
+            if (last != entity)
+            {
+                members.set(index, last);
+                indices[last] = index;
+            }
+
+            indices[entity] = -1;
+
+            for (int i = 0; i < listeners.size; i++)
+            {
+                listeners.get(i).removed(entity);
+            }
+        }
+    }
+
+    void clear()
+    {
+        for (int i = 0; i < members.size; i++)
+        {
+            indices[members.get(i)] = -1;
+        }
+
+        members.clear();
+    }
+
+    public int size()
+    {
+        return members.size;
+    }
+
+    /**
+     * @return номер {@code index}-й сущности семейства.
+     */
+    public int get(int index)
+    {
+        return members.get(index);
+    }
+
+    public boolean contains(int entity)
+    {
+        return entity >= 0 && entity < indices.length && indices[entity] >= 0;
+    }
+}
@@ -0,0 +1,101 @@
+package libgdx.thrust.copter;
+
+/**
+ * Аккумулятор фиксированного шага симуляции. Время кадра копится,
+ * а симуляция выполняется целыми шагами постоянной длины, поэтому
+ * физика не зависит от частоты кадров. Остаток шага отдаётся
+ * отрисовке как коэффициент интерполяции.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class FixedTimestep
+{
+    private float step;
+    private int maxStepsPerFrame;
+    private float accumulator;
+
+    /**
+     * @param tickRate         шагов симуляции в секунду.
+     * @param maxStepsPerFrame сколько шагов можно догнать за один кадр;
+     *                         лишнее время отбрасывается, игра замедляется,
+     *                         а не «проскакивает» препятствия.
+     */
+    public FixedTimestep(int tickRate, int maxStepsPerFrame)
+    {
+        setTickRate(tickRate);
+        setMaxStepsPerFrame(maxStepsPerFrame);
+    }
+
+    /**
+     * Добавляет время кадра.
+     *
+     * @return сколько шагов длиной {@link #getStep()} нужно выполнить.
+     */
+    public int advance(float delta)
+    {
+        accumulator += delta;
+
+        int steps = (int) (accumulator / step);
+
+        if (steps > maxStepsPerFrame)
+        {
+            steps = maxStepsPerFrame;
+            accumulator = 0;
+        }
+        else
+        {
+            accumulator -= steps * step;
+        }
+
+        return steps;
+    }
+
+    /**
+     * @return доля шага, прошедшая после последнего выполненного шага, [0, 1).
+     */
+    public float getAlpha()
+    {
+        return Math.min(accumulator / step, 1f);
+    }
+
+    public float getStep()
+    {
+        return step;
+    }
+
+    public int getTickRate()
+    {
+        return Math.round(1 / step);
+    }
+
+    public void setTickRate(int tickRate)
+    {
+        if (tickRate <= 0)
+        {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+
+        step = 1f / tickRate;
+    }
+
+    public int getMaxStepsPerFrame()
+    {
+        return maxStepsPerFrame;
+    }
+
+    public void setMaxStepsPerFrame(int maxStepsPerFrame)
+    {
+        if (maxStepsPerFrame <= 0)
+        {
+            throw new IllegalArgumentException("Max steps must be positive: " + maxStepsPerFrame);
+        }
+
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    public void reset()
+    {
+        accumulator = 0;
+    }
+}
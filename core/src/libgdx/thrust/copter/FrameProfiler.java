@@ -0,0 +1,199 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Пофазовый профайлер кадра. За кадр фаза может начаться несколько
+ * раз (например, несколько шагов симуляции), её время суммируется
+ * и в конце кадра попадает в {@link Histogram}. Там же записываются
+ * счётчики {@link GLProfiler}, если он включён.
+ * <p>
+ * Выключенный профайлер ничего не меряет, поэтому код может звать
+ * его всегда, не проверяя, нужен ли он.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class FrameProfiler
+{
+    private static final FrameStat[] STATS = FrameStat.values();
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    // Объявлен после STATS: конструктору они уже нужны
+    public static final FrameProfiler DISABLED = new FrameProfiler(false);
+
+    private final boolean enabled;
+
+    private final long[] started = new long[STATS.length];
+    private final long[] frameValues = new long[STATS.length];
+    private final Histogram[] histograms = new Histogram[STATS.length];
+
+    private long frames;
+
+    public FrameProfiler(boolean enabled)
+    {
+        this.enabled = enabled;
+
+        for (int i = 0; i < STATS.length; i++)
+        {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void beginFrame()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        // Сброс в начале, а не в конце кадра: то, что рисуется
+        // после endFrame (например, оверлей), в замер не попадает.
+        if (GLProfiler.isEnabled())
+        {
+            GLProfiler.reset();
+        }
+    }
+
+    public void begin(FrameStat stat)
+    {
+        if (enabled)
+        {
+            started[stat.ordinal()] = TimeUtils.nanoTime();
+        }
+    }
+
+    public void end(FrameStat stat)
+    {
+        if (enabled)
+        {
+            frameValues[stat.ordinal()] += TimeUtils.nanoTime() - started[stat.ordinal()];
+        }
+    }
+
+    public void endFrame()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        if (GLProfiler.isEnabled())
+        {
+            frameValues[FrameStat.GL_CALLS.ordinal()] = GLProfiler.calls;
+            frameValues[FrameStat.DRAW_CALLS.ordinal()] = GLProfiler.drawCalls;
+            frameValues[FrameStat.TEXTURE_BINDINGS.ordinal()] = GLProfiler.textureBindings;
+            frameValues[FrameStat.SHADER_SWITCHES.ordinal()] = GLProfiler.shaderSwitches;
+        }
+
+        for (int i = 0; i < STATS.length; i++)
+        {
+            histograms[i].record(frameValues[i]);
+            frameValues[i] = 0;
+        }
+
+        frames++;
+    }
+
+    public Histogram getHistogram(FrameStat stat)
+    {
+        return histograms[stat.ordinal()];
+    }
+
+    public long getFrames()
+    {
+        return frames;
+    }
+
+    /**
+     * Дописывает в {@code text} по строке на показатель: p50, p99
+     * и максимум, время в миллисекундах.
+     */
+    public void appendSummary(StringBuilder text)
+    {
+        for (FrameStat stat : STATS)
+        {
+            Histogram histogram = histograms[stat.ordinal()];
+
+            text.append(stat.name()).append("  p50 ");
+            appendValue(text, stat, histogram.getPercentile(0.5));
+            text.append("  p99 ");
+            appendValue(text, stat, histogram.getPercentile(0.99));
+            text.append("  max ");
+            appendValue(text, stat, histogram.getMax());
+            text.append('\n');
+        }
+    }
+
+    private static void appendValue(StringBuilder text, FrameStat stat, long value)
+    {
+        if (!stat.isTime())
+        {
+            text.append(value);
+            return;
+        }
+
+        // Микросекунды как миллисекунды с тремя знаками
+        long micros = value / 1000;
+
+        text.append(micros / 1000).append('.');
+
+        long fraction = micros % 1000;
+
+        if (fraction < 100)
+        {
+            text.append('0');
+        }
+
+        if (fraction < 10)
+        {
+            text.append('0');
+        }
+
+        text.append(fraction);
+    }
+
+    /**
+     * @return перцентили всех показателей в CSV, время в наносекундах.
+     */
+    public String toCsv()
+    {
+        StringBuilder csv = new StringBuilder(1024);
+
+        csv.append("stat,unit,frames,mean");
+
+        for (double percentile : PERCENTILES)
+        {
+            csv.append(",p").append((int) Math.round(percentile * 100));
+        }
+
+        csv.append(",max\n");
+
+        for (FrameStat stat : STATS)
+        {
+            Histogram histogram = histograms[stat.ordinal()];
+
+            csv.append(stat.name()).append(',')
+                    .append(stat.isTime() ? "ns" : "count").append(',')
+                    .append(histogram.getCount()).append(',')
+                    .append(Math.round(histogram.getMean()));
+
+            for (double percentile : PERCENTILES)
+            {
+                csv.append(',').append(histogram.getPercentile(percentile));
+            }
+
+            csv.append(',').append(histogram.getMax()).append('\n');
+        }
+
+        return csv.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package libgdx.thrust.copter;
+
+/**
+ * Что {@link FrameProfiler} меряет за кадр: время фаз в наносекундах
+ * и счётчики GL из {@link com.badlogic.gdx.graphics.profiling.GLProfiler}.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public enum FrameStat
+{
+    FRAME(true),
+    INPUT(true),
+    SIMULATION(true),
+    TERRAIN(true),
+    MOVEMENT(true),
+    SCROLL(true),
+    LIFETIME(true),
+    COLLISION(true),
+    PILLARS(true),
+    METEORS(true),
+    PICKUPS(true),
+    EFFECTS(true),
+    DRAW(true),
+    FLUSH(true),
+
+    GL_CALLS(false),
+    DRAW_CALLS(false),
+    TEXTURE_BINDINGS(false),
+    SHADER_SWITCHES(false);
+
+    private final boolean time;
+
+    FrameStat(boolean time)
+    {
+        this.time = time;
+    }
+
+    /**
+     * @return время в наносекундах или счётчик.
+     */
+    public boolean isTime()
+    {
+        return time;
+    }
+}
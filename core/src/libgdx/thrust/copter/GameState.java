@@ -0,0 +1,10 @@
+package libgdx.thrust.copter;
+
+/**
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public enum GameState
+{
+    INIT, ACTION, GAME_OVER
+}
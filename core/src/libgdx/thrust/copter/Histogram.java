@@ -0,0 +1,135 @@
+package libgdx.thrust.copter;
+
+/**
+ * Гистограмма неотрицательных целых значений с относительной
+ * точностью около 3%: до 32 значения хранятся точно, дальше каждая
+ * степень двойки делится на 32 корзины. Запись — пара сдвигов и
+ * инкремент без выделения памяти, поэтому её можно звать каждый кадр.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class Histogram
+{
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    // Больше 2^40 (около 18 минут в наносекундах) не бывает
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    private final long[] counts = new long[indexOf(MAX_VALUE) + 1];
+
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+
+        long clamped = Math.min(value, MAX_VALUE);
+
+        counts[indexOf(clamped)]++;
+        count++;
+        sum += clamped;
+        max = Math.max(max, clamped);
+    }
+
+    private static int indexOf(long value)
+    {
+        if (value < SUB_COUNT)
+        {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+
+    /**
+     * @return середина значений корзины.
+     */
+    private static long valueOf(int index)
+    {
+        if (index < SUB_COUNT)
+        {
+            return index;
+        }
+
+        int shift = index / SUB_COUNT - 1;
+        long lowest = (long) (index % SUB_COUNT + SUB_COUNT) << shift;
+
+        return lowest + ((1L << shift) >> 1);
+    }
+
+    /**
+     * @param percentile доля от 0 до 1.
+     * @return значение, не больше которого {@code percentile} записей,
+     * или 0, если записей нет.
+     */
+    public long getPercentile(double percentile)
+    {
+        if (percentile < 0 || percentile > 1)
+        {
+            throw new IllegalArgumentException("Percentile must be in [0, 1]: " + percentile);
+        }
+
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile * count));
+
+        if (target == count)
+        {
+            return max;
+        }
+
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+
+            if (seen >= target)
+            {
+                return Math.min(valueOf(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getMax()
+    {
+        return max;
+    }
+
+    public double getMean()
+    {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public void clear()
+    {
+        for (int i = 0; i < counts.length; i++)
+        {
+            counts[i] = 0;
+        }
+
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,200 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Слой HUD: шкала топлива, число щитов и счёт. Вершины всех его
+ * спрайтов собираются в один массив и пересобираются только когда
+ * меняется что-то видимое: ширина шкалы в пикселях, щиты или счёт.
+ * В остальных кадрах слой отдаёт батчу готовый массив одним вызовом.
+ * <p>
+ * Шкала и шрифт должны лежать на одной странице атласа, тогда слой
+ * рисуется без смены текстуры и не сбрасывает батч.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class HudLayer
+{
+    /**
+     * Число float на спрайт в формате {@link Batch}: четыре вершины
+     * по x, y, цвет, u, v.
+     */
+    public static final int SPRITE_SIZE = 20;
+
+    private static final float FUEL_X = 10;
+    private static final float FUEL_Y = 350;
+
+    private static final float BLACK = Color.BLACK.toFloatBits();
+    private static final float WHITE = Color.WHITE.toFloatBits();
+
+    private final Texture texture;
+    private final TextureRegion fuelIndicator;
+
+    private final HudNumber shieldText;
+    private final HudNumber scoreText;
+
+    private float[] vertices = new float[SPRITE_SIZE * 16];
+    private int size;
+
+    // Ширина шкалы в пикселях, -1 до первой сборки
+    private int fuelWidth = -1;
+
+    private int refreshFrames = 1;
+    private int framesSinceRebuild;
+
+    /**
+     * @param fuelIndicator шкала топлива.
+     * @param font          шрифт чисел, страница которого лежит
+     *                      на той же текстуре, что и шкала.
+     */
+    public HudLayer(TextureRegion fuelIndicator, BitmapFont font)
+    {
+        if (font.getRegion().getTexture() != fuelIndicator.getTexture())
+        {
+            throw new IllegalArgumentException("HUD font and fuel indicator must share a texture");
+        }
+
+        this.fuelIndicator = fuelIndicator;
+        texture = fuelIndicator.getTexture();
+
+        shieldText = new HudNumber(font, 390, 450);
+        scoreText = new HudNumber(font, 700, 450);
+    }
+
+    /**
+     * Пересобирает слой, если значения изменились.
+     *
+     * @param fuelPercentage остаток топлива, он же ширина шкалы в пикселях.
+     */
+    public void update(int fuelPercentage, int shieldCount, int score)
+    {
+        // Первая сборка сразу, дальше не чаще раза в refreshFrames кадров.
+        if (fuelWidth >= 0 && framesSinceRebuild + 1 < refreshFrames)
+        {
+            framesSinceRebuild++;
+            return;
+        }
+
+        int width = Math.max(0, Math.min(fuelPercentage, fuelIndicator.getRegionWidth()));
+
+        // Оба вызова нужны, чтобы каждое число разложилось заново.
+        boolean changed = shieldText.setValue(shieldCount);
+        changed |= scoreText.setValue(score);
+
+        if (!changed && width == fuelWidth)
+        {
+            return;
+        }
+
+        fuelWidth = width;
+        framesSinceRebuild = 0;
+        rebuild();
+    }
+
+    /**
+     * @param refreshFrames пересобирать слой не чаще, чем раз
+     *                      в столько кадров. Изменения между
+     *                      пересборками не теряются, а запаздывают.
+     */
+    public void setRefreshFrames(int refreshFrames)
+    {
+        if (refreshFrames < 1)
+        {
+            throw new IllegalArgumentException("Refresh frames must be positive: " + refreshFrames);
+        }
+
+        this.refreshFrames = refreshFrames;
+    }
+
+    public void draw(Batch batch)
+    {
+        if (size > 0)
+        {
+            batch.draw(texture, vertices, 0, size);
+        }
+    }
+
+    private void rebuild()
+    {
+        size = 0;
+
+        ensureCapacity(SPRITE_SIZE * 2 + shieldText.getVerticesLength()
+                + scoreText.getVerticesLength());
+
+        int regionWidth = fuelIndicator.getRegionWidth();
+        float u = fuelIndicator.getU();
+        float u2 = fuelIndicator.getU2();
+
+        addSprite(FUEL_X, FUEL_Y, regionWidth, u, u2, BLACK);
+
+        if (fuelWidth > 0)
+        {
+            addSprite(FUEL_X, FUEL_Y, fuelWidth, u, u + (u2 - u) * fuelWidth / regionWidth, WHITE);
+        }
+
+        addNumber(shieldText);
+        addNumber(scoreText);
+    }
+
+    private void addSprite(float x, float y, float width, float u, float u2, float color)
+    {
+        float height = fuelIndicator.getRegionHeight();
+
+        // Верх региона в текстуре - v, низ - v2.
+        float v = fuelIndicator.getV();
+        float v2 = fuelIndicator.getV2();
+
+        float[] vertices = this.vertices;
+        int i = size;
+
+        vertices[i++] = x;
+        vertices[i++] = y;
+        vertices[i++] = color;
+        vertices[i++] = u;
+        vertices[i++] = v2;
+
+        vertices[i++] = x;
+        vertices[i++] = y + height;
+        vertices[i++] = color;
+        vertices[i++] = u;
+        vertices[i++] = v;
+
+        vertices[i++] = x + width;
+        vertices[i++] = y + height;
+        vertices[i++] = color;
+        vertices[i++] = u2;
+        vertices[i++] = v;
+
+        vertices[i++] = x + width;
+        vertices[i++] = y;
+        vertices[i++] = color;
+        vertices[i++] = u2;
+        vertices[i++] = v2;
+
+        size = i;
+    }
+
+    private void addNumber(HudNumber number)
+    {
+        int length = number.getVerticesLength();
+
+        System.arraycopy(number.getVertices(), 0, vertices, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int length)
+    {
+        // Растёт только вместе с числом цифр, то есть почти никогда.
+        if (length > vertices.length)
+        {
+            float[] grown = new float[Math.max(length, vertices.length << 1)];
+            System.arraycopy(vertices, 0, grown, 0, size);
+            vertices = grown;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Целое число на HUD в фиксированном месте экрана. Цифры пишутся
+ * в переиспользуемый буфер, а вершины глифов хранятся в
+ * {@link BitmapFontCache} и пересчитываются только когда число
+ * меняется. В остальных кадрах отрисовка лишь копирует готовые
+ * вершины в батч. Число состоит из цифр и минуса, у каждого из которых
+ * в шрифте есть глиф, поэтому вершин ровно по четыре на символ.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class HudNumber
+{
+    private final BitmapFontCache cache;
+    private final StringBuilder text = new StringBuilder(16);
+
+    private final float x;
+    private final float y;
+
+    private int value;
+    private boolean laidOut;
+
+    /**
+     * @param x левый край текста.
+     * @param y верхний край текста.
+     */
+    public HudNumber(BitmapFont font, float x, float y)
+    {
+        if (font.getRegions().length != 1)
+        {
+            throw new IllegalArgumentException("HUD font must have a single page");
+        }
+
+        this.x = x;
+        this.y = y;
+
+        cache = new BitmapFontCache(font, font.usesIntegerPositions());
+        cache.setColor(font.getColor());
+    }
+
+    /**
+     * Раскладывает глифы заново, только если число изменилось.
+     *
+     * @return изменилось ли число.
+     */
+    public boolean setValue(int value)
+    {
+        if (laidOut && value == this.value)
+        {
+            return false;
+        }
+
+        this.value = value;
+        laidOut = true;
+
+        text.setLength(0);
+        text.append(value);
+
+        cache.setText(text, x, y);
+
+        return true;
+    }
+
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * @return вершины глифов в формате {@link Batch}, действительны
+     * первые {@link #getVerticesLength()}.
+     */
+    public float[] getVertices()
+    {
+        return cache.getVertices();
+    }
+
+    public int getVerticesLength()
+    {
+        return cache.getCharsCount() * HudLayer.SPRITE_SIZE;
+    }
+
+    public void draw(Batch batch)
+    {
+        cache.draw(batch);
+    }
+}
@@ -0,0 +1,46 @@
+package libgdx.thrust.copter;
+
+/**
+ * Время жизни: уничтожает сущности, ушедшие за левый край экрана.
+ * Появляются все справа, поэтому других причин исчезнуть у них нет,
+ * кроме подбора.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class LifetimeSystem extends WorldSystem
+{
+    // Край с запасом, чтобы сущность не исчезала у игрока на глазах
+    private static final float MIN_X = -10;
+
+    private final Entities entities;
+    private final Family mortal;
+
+    public LifetimeSystem(World world)
+    {
+        super(world, FrameStat.LIFETIME);
+
+        entities = world.getEntities();
+        mortal = entities.getFamily(Component.POSITION, Component.LIFETIME);
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        // Идём с конца: на место уничтоженной встаёт уже пройденная последняя.
+        for (int i = mortal.size() - 1; i >= 0; i--)
+        {
+            int entity = mortal.get(i);
+
+            if (entities.getX(entity) + entities.getExtent(entity) < MIN_X)
+            {
+                entities.destroy(entity);
+            }
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+}
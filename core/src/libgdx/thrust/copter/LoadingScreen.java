@@ -0,0 +1,89 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ScreenAdapter;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+/**
+ * Экран загрузки группы ресурсов. Каждый кадр грузит ресурсы не
+ * дольше {@link #BUDGET_MILLIS} и рисует полосу прогресса, поэтому
+ * первый кадр появляется сразу, а не после загрузки всего.
+ * Полоса рисуется без текстур, ей ничего не нужно загружать.
+ * Группу экран держит, пока виден: следующий экран захватывает
+ * её сам, до того как этот её отпустит.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class LoadingScreen extends ScreenAdapter
+{
+    // Почти весь кадр при 60 FPS
+    private static final int BUDGET_MILLIS = 15;
+
+    private static final float BAR_WIDTH = 400;
+    private static final float BAR_HEIGHT = 20;
+
+    private final ThrustCopter thrustCopter;
+    private final AssetManager manager;
+    private final AssetGroups assets;
+    private final OrthographicCamera camera;
+    private final String group;
+
+    private ShapeRenderer shapes;
+
+    public LoadingScreen(ThrustCopter thrustCopter, String group)
+    {
+        this.thrustCopter = thrustCopter;
+        this.group = group;
+
+        manager = thrustCopter.getManager();
+        assets = thrustCopter.getAssets();
+        camera = thrustCopter.getCamera();
+    }
+
+    @Override
+    public void show()
+    {
+        shapes = new ShapeRenderer();
+        assets.acquire(group);
+    }
+
+    @Override
+    public void render(float delta)
+    {
+        manager.update(BUDGET_MILLIS);
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        camera.update();
+        shapes.setProjectionMatrix(camera.combined);
+
+        float x = (ThrustCopter.getScreenWidth() - BAR_WIDTH) / 2;
+        float y = (ThrustCopter.getScreenHeight() - BAR_HEIGHT) / 2;
+
+        shapes.begin(ShapeRenderer.ShapeType.Filled);
+        shapes.setColor(Color.DARK_GRAY);
+        shapes.rect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        shapes.setColor(Color.WHITE);
+        shapes.rect(x, y, BAR_WIDTH * assets.getProgress(group), BAR_HEIGHT);
+        shapes.end();
+
+        if (assets.isLoaded(group))
+        {
+            thrustCopter.groupLoaded(group);
+        }
+    }
+
+    @Override
+    public void hide()
+    {
+        shapes.dispose();
+        shapes = null;
+        assets.release(group);
+    }
+}
@@ -0,0 +1,163 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Random;
+
+/**
+ * Появление метеоров: через случайные промежутки запускает справа
+ * рой сущностей, которые летят сами по себе, прокручиваются вместе
+ * с миром, уходят слева и убивают самолёт при касании. Двигают,
+ * проверяют и рисуют метеоры общие системы по их компонентам.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class MeteorSystem extends WorldSystem
+{
+    private static final int METEOR_SPEED = 30;
+
+    private final WorldSettings settings;
+    private final Random random;
+    private final Entities entities;
+
+    private final int[] meteorWidths;
+    private final int[] meteorHeights;
+    private final CollisionMask[] meteorMasks;
+    private final int[] meteorRegions;
+
+    private final Family meteors;
+
+    private final Vector2 launchVelocity = new Vector2();
+    private final Vector2 tmpLaunchVelocity = new Vector2();
+    private final Vector2 tmpMeteorVelocity = new Vector2();
+    private final Vector2 tmpDestination = new Vector2();
+
+    private float nextMeteorIn;
+
+    public MeteorSystem(World world, SpriteMetrics metrics)
+    {
+        super(world, FrameStat.METEORS);
+
+        settings = world.getSettings();
+        random = world.getRandom();
+        entities = world.getEntities();
+
+        meteorWidths = new int[World.METEOR_REGIONS.length];
+        meteorHeights = new int[World.METEOR_REGIONS.length];
+        meteorMasks = new CollisionMask[World.METEOR_REGIONS.length];
+        meteorRegions = new int[World.METEOR_REGIONS.length];
+
+        for (int i = 0; i < World.METEOR_REGIONS.length; i++)
+        {
+            meteorWidths[i] = metrics.getWidth(World.METEOR_REGIONS[i]);
+            meteorHeights[i] = metrics.getHeight(World.METEOR_REGIONS[i]);
+            meteorMasks[i] = metrics.getMask(World.METEOR_REGIONS[i]);
+            meteorRegions[i] = entities.registerRegion(World.METEOR_REGIONS[i]);
+        }
+
+        meteors = entities.getFamily(Component.HAZARD, Component.VELOCITY);
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        nextMeteorIn -= deltaTime;
+
+        if (nextMeteorIn <= 0)
+        {
+            launchMeteors();
+        }
+    }
+
+    /**
+     * Запускает рой из {@link WorldSettings#getMeteorShowerSize()}
+     * метеоров, пока в сцене есть для них место.
+     */
+    private void launchMeteors()
+    {
+        nextMeteorIn = settings.getMeteorIntervalMin() + random.nextFloat() *
+                (settings.getMeteorIntervalMax() - settings.getMeteorIntervalMin());
+
+        int count = Math.min(settings.getMeteorShowerSize(), settings.getMaxMeteors() - meteors.size());
+
+        if (count <= 0)
+        {
+            return;
+        }
+
+        world.getListener().meteorLaunched();
+
+        tmpLaunchVelocity.set(launchVelocity);
+
+        for (int i = 0; i < count; i++)
+        {
+            launchMeteor(i == 0);
+        }
+    }
+
+    /**
+     * @param first первый метеор роя: его скорость копится между запусками.
+     */
+    private void launchMeteor(boolean first)
+    {
+        int type = random.nextInt(World.METEOR_REGIONS.length);
+
+        float x = 810;
+        float y = 80 + random.nextFloat() * 320;
+
+        Vector2 destination = tmpDestination;
+        destination.x = -10;
+        destination.y = 80 + random.nextFloat() * 320;
+        destination.sub(x, y).nor();
+
+        // Как в исходной игре, скорость нового запуска прибавляется
+        // к скорости прошлого, и метеоры со временем разгоняются.
+        // Метеоры одного роя прибавляют свои направления к одной базе.
+        Vector2 velocity = first ? launchVelocity : tmpMeteorVelocity.set(tmpLaunchVelocity);
+        velocity.mulAdd(destination, METEOR_SPEED);
+
+        spawn(x, y, velocity.x, velocity.y, type);
+    }
+
+    /**
+     * Ставит метеор вида {@code type} в экранные координаты {@code (x, y)}.
+     *
+     * @return номер сущности метеора.
+     */
+    int spawn(float x, float y, float velocityX, float velocityY, int type)
+    {
+        int meteor = entities.create();
+
+        // Скорость ставим раньше коллайдера: метеор сразу попадает
+        // в широкую фазу летящих, минуя неподвижных.
+        entities.setPosition(meteor, x, y);
+        entities.setVelocity(meteor, velocityX, velocityY);
+        entities.setScroll(meteor);
+        entities.setLifetime(meteor, 0);
+        entities.setCollider(meteor, meteorWidths[type], meteorHeights[type], meteorMasks[type]);
+        entities.setHazard(meteor, DeathCause.METEOR);
+        entities.setSprite(meteor, meteorRegions[type], Entities.FRONT_LAYER);
+
+        return meteor;
+    }
+
+    @Override
+    public void reset()
+    {
+        // Всё состояние, влияющее на ход игры, сбрасываем явно,
+        // иначе повтор с тем же зерном разойдётся с оригиналом.
+        launchVelocity.setZero();
+
+        nextMeteorIn = random.nextFloat() *
+                (settings.getMeteorIntervalMax() - settings.getMeteorIntervalMin());
+    }
+
+    /**
+     * @return летящие опасные сущности, то есть метеоры.
+     */
+    public Family getMeteors()
+    {
+        return meteors;
+    }
+}
@@ -0,0 +1,46 @@
+package libgdx.thrust.copter;
+
+/**
+ * Движение: перед шагом запоминает положения всех сущностей для
+ * интерполяции, в шаге сдвигает сущности со скоростью на скорость,
+ * умноженную на шаг.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class MovementSystem extends WorldSystem
+{
+    private final Entities entities;
+    private final Family moving;
+
+    public MovementSystem(World world)
+    {
+        super(world, FrameStat.MOVEMENT);
+
+        entities = world.getEntities();
+        moving = entities.getFamily(Component.POSITION, Component.VELOCITY);
+    }
+
+    @Override
+    public void beginStep()
+    {
+        entities.savePositions();
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        for (int i = 0; i < moving.size(); i++)
+        {
+            int entity = moving.get(i);
+
+            entities.move(entity, entities.getVelocityX(entity) * deltaTime,
+                    entities.getVelocityY(entity) * deltaTime);
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+}
@@ -0,0 +1,330 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter.ScaledNumericValue;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Все эффекты частиц сцены. Каждый вид эффекта регистрируется под
+ * именем со своим пулом, так что одновременно может идти сколько
+ * угодно взрывов и следов, а закончившиеся возвращаются в пул.
+ * <p>
+ * Эффекты бывают двух видов. Вспышки (взрывы, облачка) запускаются
+ * в точке и живут, пока не догорят. Следы тянутся за объектом, пока
+ * их владелец их не остановит, после чего догорают как вспышки.
+ * Общее число частиц ограничено бюджетом: когда он превышен,
+ * гасятся самые старые вспышки. Следы не гасятся, но в бюджет
+ * входят. Плотность новых эффектов можно уменьшить долей испускания.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class ParticleEffects
+{
+    public static final String SMOKE = "smoke";
+    public static final String EXPLOSION = "explosion";
+
+    private final ObjectMap<String, ParticleEffectPool> pools = new ObjectMap<String, ParticleEffectPool>();
+    private final ObjectMap<String, ParticleEffect> prototypes = new ObjectMap<String, ParticleEffect>();
+
+    // От самой старой к самой новой
+    private final Array<PooledEffect> bursts = new Array<PooledEffect>(true, 16);
+    private final Array<PooledEffect> trails = new Array<PooledEffect>(false, 4);
+
+    private int particleBudget;
+    private float emissionScale = 1;
+    private int particleCount;
+    private int culledCount;
+
+    /**
+     * @param particleBudget сколько частиц может быть одновременно.
+     */
+    public ParticleEffects(int particleBudget)
+    {
+        setParticleBudget(particleBudget);
+    }
+
+    /**
+     * @param prototype эффект, копии которого лежат в пуле. Остаётся
+     *                  у вызывающего, копии делят с ним спрайты.
+     * @param max       сколько копий пул хранит про запас. Все они
+     *                  создаются сразу, чтобы не выделять память в игре.
+     */
+    public void register(String name, ParticleEffect prototype, int max)
+    {
+        if (pools.containsKey(name))
+        {
+            throw new IllegalStateException("Effect is already registered: " + name);
+        }
+
+        ParticleEffectPool pool = new ParticleEffectPool(prototype, max, max)
+        {
+            @Override
+            protected PooledEffect newObject()
+            {
+                PooledEffect effect = super.newObject();
+                allocateParticles(effect);
+                return effect;
+            }
+        };
+
+        Array<PooledEffect> copies = new Array<PooledEffect>(max);
+
+        for (int i = 0; i < max; i++)
+        {
+            copies.add(pool.obtain());
+        }
+
+        pool.freeAll(copies);
+
+        pools.put(name, pool);
+        prototypes.put(name, prototype);
+    }
+
+    /**
+     * Эмиттер создаёт частицу, только когда впервые занимает её ячейку,
+     * то есть выделяет память посреди игры, стоит эффекту разгореться
+     * сильнее прежнего. Поэтому новую копию сразу заполняем целиком.
+     */
+    private static void allocateParticles(ParticleEffect effect)
+    {
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+
+        for (int i = 0; i < emitters.size; i++)
+        {
+            ParticleEmitter emitter = emitters.get(i);
+            emitter.addParticles(emitter.getMaxParticleCount());
+        }
+
+        effect.reset();
+    }
+
+    /**
+     * Запускает вспышку в точке {@code (x, y)}.
+     */
+    public PooledEffect spawn(String name, float x, float y)
+    {
+        PooledEffect effect = obtain(name);
+        effect.setPosition(x, y);
+        bursts.add(effect);
+
+        return effect;
+    }
+
+    /**
+     * Запускает след. Двигает его владелец, пока не вызовет
+     * {@link #stopTrail(PooledEffect)}.
+     */
+    public PooledEffect startTrail(String name)
+    {
+        PooledEffect effect = obtain(name);
+        trails.add(effect);
+
+        return effect;
+    }
+
+    /**
+     * След перестаёт испускать частицы и догорает как вспышка.
+     */
+    public void stopTrail(PooledEffect effect)
+    {
+        if (!trails.removeValue(effect, true))
+        {
+            throw new IllegalArgumentException("Not a running trail");
+        }
+
+        effect.allowCompletion();
+        bursts.add(effect);
+    }
+
+    private PooledEffect obtain(String name)
+    {
+        ParticleEffectPool pool = pools.get(name);
+
+        if (pool == null)
+        {
+            throw new IllegalArgumentException("Unknown effect: " + name);
+        }
+
+        PooledEffect effect = pool.obtain();
+        scaleEmission(prototypes.get(name), effect);
+
+        return effect;
+    }
+
+    /**
+     * Копия из пула могла испускать с другой долей: считаем
+     * от прототипа, а не от текущих значений копии.
+     */
+    private void scaleEmission(ParticleEffect prototype, ParticleEffect effect)
+    {
+        Array<ParticleEmitter> source = prototype.getEmitters();
+        Array<ParticleEmitter> target = effect.getEmitters();
+
+        for (int i = 0; i < source.size; i++)
+        {
+            ScaledNumericValue from = source.get(i).getEmission();
+            ScaledNumericValue to = target.get(i).getEmission();
+
+            to.setLow(from.getLowMin() * emissionScale, from.getLowMax() * emissionScale);
+            to.setHigh(from.getHighMin() * emissionScale, from.getHighMax() * emissionScale);
+        }
+    }
+
+    public void update(float delta)
+    {
+        particleCount = 0;
+
+        for (int i = 0; i < trails.size; i++)
+        {
+            PooledEffect effect = trails.get(i);
+
+            effect.update(delta);
+            particleCount += countParticles(effect);
+        }
+
+        int i = 0;
+
+        while (i < bursts.size)
+        {
+            PooledEffect effect = bursts.get(i);
+
+            effect.update(delta);
+
+            if (effect.isComplete())
+            {
+                // Сдвигом, а не перестановкой: порядок нужен для гашения.
+                bursts.removeIndex(i);
+                effect.free();
+                continue;
+            }
+
+            particleCount += countParticles(effect);
+            i++;
+        }
+
+        while (particleCount > particleBudget && bursts.size > 0)
+        {
+            PooledEffect oldest = bursts.removeIndex(0);
+
+            particleCount -= countParticles(oldest);
+            oldest.free();
+            culledCount++;
+        }
+    }
+
+    private static int countParticles(ParticleEffect effect)
+    {
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        int count = 0;
+
+        for (int i = 0; i < emitters.size; i++)
+        {
+            count += emitters.get(i).getActiveCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Рисует следы. Обычно под тем, за кем они тянутся.
+     */
+    public void drawTrails(Batch batch)
+    {
+        for (int i = 0; i < trails.size; i++)
+        {
+            trails.get(i).draw(batch);
+        }
+    }
+
+    /**
+     * Рисует вспышки. Обычно поверх всего остального.
+     */
+    public void drawBursts(Batch batch)
+    {
+        for (int i = 0; i < bursts.size; i++)
+        {
+            bursts.get(i).draw(batch);
+        }
+    }
+
+    /**
+     * Возвращает все эффекты в пулы.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < trails.size; i++)
+        {
+            trails.get(i).free();
+        }
+
+        for (int i = 0; i < bursts.size; i++)
+        {
+            bursts.get(i).free();
+        }
+
+        trails.clear();
+        bursts.clear();
+        particleCount = 0;
+    }
+
+    public void setParticleBudget(int particleBudget)
+    {
+        if (particleBudget < 0)
+        {
+            throw new IllegalArgumentException("Particle budget must be non-negative: " + particleBudget);
+        }
+
+        this.particleBudget = particleBudget;
+    }
+
+    public int getParticleBudget()
+    {
+        return particleBudget;
+    }
+
+    /**
+     * @param emissionScale доля частиц, которую испускают эффекты,
+     *                      запущенные после вызова.
+     */
+    public void setEmissionScale(float emissionScale)
+    {
+        if (emissionScale < 0)
+        {
+            throw new IllegalArgumentException("Emission scale must be non-negative: " + emissionScale);
+        }
+
+        this.emissionScale = emissionScale;
+    }
+
+    public float getEmissionScale()
+    {
+        return emissionScale;
+    }
+
+    /**
+     * @return число живых частиц после последнего {@link #update(float)}.
+     */
+    public int getParticleCount()
+    {
+        return particleCount;
+    }
+
+    public int getEffectCount()
+    {
+        return trails.size + bursts.size;
+    }
+
+    /**
+     * @return сколько вспышек погашено бюджетом за всё время.
+     */
+    public int getCulledCount()
+    {
+        return culledCount;
+    }
+}
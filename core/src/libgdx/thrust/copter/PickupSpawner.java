@@ -0,0 +1,84 @@
+package libgdx.thrust.copter;
+
+import java.util.Random;
+
+/**
+ * Планировщик появления бонусов. Вместо отдельного таймера на каждый вид
+ * держит один общий таймер с суммарной частотой всех видов, а вид
+ * очередного бонуса выбирает по таблице псевдонимов за O(1).
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class PickupSpawner
+{
+    private static final float RETRY_MIN = 0.5f;
+    private static final float RETRY_MAX = 1.0f;
+
+    private final PickupTypes types;
+    private final AliasTable table;
+    private final float meanInterval;
+    private final Random random;
+
+    private float nextPickupIn;
+
+    /**
+     * @param rateScale множитель частоты появления всех видов.
+     * @param random    генератор мира, которому принадлежит планировщик.
+     */
+    public PickupSpawner(PickupTypes types, float rateScale, Random random)
+    {
+        this.types = types;
+        this.random = random;
+
+        float[] weights = new float[types.size()];
+        float totalRate = 0;
+
+        for (int i = 0; i < weights.length; i++)
+        {
+            weights[i] = types.get(i).getSpawnRate();
+            totalRate += weights[i];
+        }
+
+        table = new AliasTable(weights);
+        // При нулевой частоте интервал бесконечен и бонусы не появляются.
+        meanInterval = 1 / (totalRate * rateScale);
+    }
+
+    public void reset()
+    {
+        nextPickupIn = Float.isInfinite(meanInterval) ? meanInterval : 0;
+    }
+
+    /**
+     * @return вид бонуса, который пора создать, или {@code null}.
+     * Если вид возвращён, вызывающий обязан сообщить результат
+     * через {@link #scheduleNext(boolean)}.
+     */
+    public PickupType update(float delta)
+    {
+        nextPickupIn -= delta;
+
+        if (nextPickupIn > 0)
+        {
+            return null;
+        }
+
+        return types.get(table.sample(random.nextFloat()));
+    }
+
+    /**
+     * @param spawned удалось ли поставить бонус; если нет — повторяем попытку скоро.
+     */
+    public void scheduleNext(boolean spawned)
+    {
+        if (spawned)
+        {
+            nextPickupIn = meanInterval * (0.5f + random.nextFloat());
+        }
+        else
+        {
+            nextPickupIn = RETRY_MIN + random.nextFloat() * (RETRY_MAX - RETRY_MIN);
+        }
+    }
+}
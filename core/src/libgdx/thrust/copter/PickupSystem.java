@@ -0,0 +1,128 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Random;
+
+/**
+ * Появление бонусов: по расписанию {@link PickupSpawner} ставит
+ * справа сущность, которая прокручивается вместе с миром, уходит
+ * слева и достаётся самолёту при касании. Бонус не появляется внутри
+ * столбов, поэтому появление идёт во второй половине шага, когда
+ * столбы уже на месте. Двигают, проверяют и рисуют бонусы общие
+ * системы по их компонентам.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class PickupSystem extends WorldSystem
+{
+    private final Random random;
+    private final Entities entities;
+    private final CollisionSystem collisions;
+
+    private final PickupSpawner spawner;
+    private final Family pickups;
+    // Номер региона по номеру вида бонуса
+    private final int[] regions;
+
+    private final Vector2 spawnPosition = new Vector2();
+
+    /**
+     * @param collisions столкновения, по которым видно, где стоят столбы.
+     */
+    public PickupSystem(World world, PickupTypes types, SpriteMetrics metrics, CollisionSystem collisions)
+    {
+        super(world, FrameStat.PICKUPS);
+
+        this.collisions = collisions;
+        random = world.getRandom();
+        entities = world.getEntities();
+
+        types.measure(metrics);
+        spawner = new PickupSpawner(types, world.getSettings().getPickupRateScale(), random);
+        pickups = entities.getFamily(Component.PICKUP);
+
+        regions = new int[types.size()];
+
+        for (int i = 0; i < types.size(); i++)
+        {
+            regions[i] = entities.registerRegion(types.get(i).getRegionName());
+        }
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+    }
+
+    /**
+     * Создаёт бонус, если подошло время.
+     */
+    @Override
+    public void lateUpdate(float deltaTime)
+    {
+        PickupType type = spawner.update(deltaTime);
+
+        if (type != null)
+        {
+            spawner.scheduleNext(spawn(type));
+        }
+    }
+
+    private boolean spawn(PickupType type)
+    {
+        spawnPosition.x = 820;
+        spawnPosition.y = 80 + random.nextFloat() * 320;
+
+        if (collisions.isInsideHazard(spawnPosition))
+        {
+            return false;
+        }
+
+        place(type, spawnPosition.x, spawnPosition.y);
+
+        return true;
+    }
+
+    /**
+     * Ставит бонус в экранные координаты {@code (x, y)}.
+     *
+     * @return номер сущности бонуса.
+     */
+    int place(PickupType type, float x, float y)
+    {
+        int pickup = entities.create();
+
+        entities.setPosition(pickup, x, y);
+        entities.setScroll(pickup);
+        entities.setLifetime(pickup, type.getWidth());
+        entities.setCollider(pickup, type.getWidth(), type.getHeight(), type.getMask());
+        entities.setPickup(pickup, type);
+        entities.setSprite(pickup, regions[type.getId()], Entities.FRONT_LAYER);
+
+        return pickup;
+    }
+
+    /**
+     * Убирает все бонусы со сцены.
+     */
+    void clear()
+    {
+        for (int i = pickups.size() - 1; i >= 0; i--)
+        {
+            entities.destroy(pickups.get(i));
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        spawner.reset();
+    }
+
+    public Family getPickups()
+    {
+        return pickups;
+    }
+}
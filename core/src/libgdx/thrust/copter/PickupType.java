@@ -0,0 +1,121 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Описание вида бонуса (flyweight). Один экземпляр на вид,
+ * его разделяют все бонусы этого вида в сцене.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class PickupType
+{
+    /**
+     * Что происходит с игроком при подборе бонуса.
+     */
+    public static enum Effect
+    {
+        /** Прибавляет значение к счёту звёзд. */
+        STARS,
+        /** Устанавливает значение щита. */
+        SHIELD,
+        /** Устанавливает значение топлива. */
+        FUEL
+    }
+
+    private final int id;
+    private final String regionName;
+    private final String soundName;
+    private final Effect effect;
+    private final int value;
+    private final float spawnRate;
+
+    private int width;
+    private int height;
+    private CollisionMask mask;
+
+    private TextureRegion texture;
+
+    /**
+     * @param spawnRate средняя частота появления, раз в секунду.
+     */
+    PickupType(int id, String regionName, String soundName, Effect effect,
+               int value, float spawnRate)
+    {
+        this.id = id;
+        this.regionName = regionName;
+        this.soundName = soundName;
+        this.effect = effect;
+        this.value = value;
+        this.spawnRate = spawnRate;
+    }
+
+    void measure(SpriteMetrics metrics)
+    {
+        width = metrics.getWidth(regionName);
+        height = metrics.getHeight(regionName);
+        mask = metrics.getMask(regionName);
+    }
+
+    void resolveTexture(TextureAtlas atlas)
+    {
+        texture = atlas.findRegion(regionName);
+
+        if (texture == null)
+        {
+            throw new IllegalStateException("Region not found: " + regionName);
+        }
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public String getRegionName()
+    {
+        return regionName;
+    }
+
+    public String getSoundName()
+    {
+        return soundName;
+    }
+
+    public Effect getEffect()
+    {
+        return effect;
+    }
+
+    public int getValue()
+    {
+        return value;
+    }
+
+    public float getSpawnRate()
+    {
+        return spawnRate;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public CollisionMask getMask()
+    {
+        return mask;
+    }
+
+    public TextureRegion getTexture()
+    {
+        return texture;
+    }
+}
@@ -0,0 +1,71 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Реестр видов бонусов. Все виды объявлены в {@link #createDefault()}.
+ * Размеры для симуляции задаются в {@link #measure}, ресурсы для
+ * отрисовки и звука ищутся один раз в {@link #resolveTextures}.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class PickupTypes
+{
+    private final Array<PickupType> types = new Array<PickupType>();
+
+    public static PickupTypes createDefault()
+    {
+        PickupTypes types = new PickupTypes();
+
+        types.register("star_pickup", "sounds/star.ogg",
+                PickupType.Effect.STARS, 5, 1 / 2f);
+        types.register("fuel_pickup", "sounds/fuel.ogg",
+                PickupType.Effect.FUEL, 100, 1 / 4f);
+        types.register("shield_pickup", "sounds/shield.ogg",
+                PickupType.Effect.SHIELD, 15, 1 / 11.5f);
+
+        return types;
+    }
+
+    public PickupType register(String regionName, String soundName,
+                               PickupType.Effect effect, int value, float spawnRate)
+    {
+        PickupType type = new PickupType(types.size, regionName, soundName,
+                effect, value, spawnRate);
+        types.add(type);
+
+        return type;
+    }
+
+    public void measure(SpriteMetrics metrics)
+    {
+        for (int i = 0; i < types.size; i++)
+        {
+            types.get(i).measure(metrics);
+        }
+    }
+
+    /**
+     * Находит текстуры бонусов в атласе. Звуки сцена берёт по
+     * {@link PickupType#getSoundName()}, когда они догрузятся.
+     */
+    public void resolveTextures(TextureAtlas atlas)
+    {
+        for (int i = 0; i < types.size; i++)
+        {
+            types.get(i).resolveTexture(atlas);
+        }
+    }
+
+    public PickupType get(int id)
+    {
+        return types.get(id);
+    }
+
+    public int size()
+    {
+        return types.size;
+    }
+}
@@ -0,0 +1,132 @@
+package libgdx.thrust.copter;
+
+import java.util.Random;
+
+/**
+ * Появление столбов: через случайные промежутки ставит справа
+ * сущность, которая прокручивается вместе с миром, уходит слева
+ * и убивает самолёт при касании. Двигают, проверяют и рисуют
+ * столбы общие системы по их компонентам.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class PillarSystem extends WorldSystem
+{
+    public static final byte UP = 1;
+    public static final byte DOWN = -1;
+
+    private final WorldSettings settings;
+    private final Random random;
+    private final Entities entities;
+
+    private final int pillarWidth;
+    private final int pillarHeight;
+    private final CollisionMask upMask;
+    private final CollisionMask downMask;
+    private final int upRegion;
+    private final int downRegion;
+
+    private final Family pillars;
+
+    // Последний поставленный столб, он же самый правый, или -1
+    private int lastPillar = -1;
+
+    public PillarSystem(World world, SpriteMetrics metrics)
+    {
+        super(world, FrameStat.PILLARS);
+
+        settings = world.getSettings();
+        random = world.getRandom();
+        entities = world.getEntities();
+
+        pillarWidth = metrics.getWidth(World.PILLAR_REGION);
+        pillarHeight = metrics.getHeight(World.PILLAR_REGION);
+        upMask = metrics.getMask(World.PILLAR_REGION);
+        downMask = metrics.getMask(World.PILLAR_DOWN_REGION);
+        upRegion = entities.registerRegion(World.PILLAR_REGION);
+        downRegion = entities.registerRegion(World.PILLAR_DOWN_REGION);
+
+        pillars = entities.getFamily(Component.mask(Component.HAZARD), Component.VELOCITY.bit());
+        pillars.addListener(new Family.Listener()
+        {
+            @Override
+            public void added(int entity)
+            {
+            }
+
+            @Override
+            public void removed(int entity)
+            {
+                if (entity == lastPillar)
+                {
+                    lastPillar = -1;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        if (lastPillar < 0 || entities.getX(lastPillar) < 400)
+        {
+            addPillar();
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        lastPillar = -1;
+        addPillar();
+    }
+
+    private void addPillar()
+    {
+        float x;
+
+        if (lastPillar < 0)
+        {
+            x = 800 + random.nextFloat() * 600;
+        }
+        else
+        {
+            x = entities.getX(lastPillar) + settings.getPillarSpacingMin() +
+                    random.nextFloat() * (settings.getPillarSpacingMax() - settings.getPillarSpacingMin());
+        }
+
+        // DOWN - upside down
+        place(x, random.nextBoolean() ? UP : DOWN);
+    }
+
+    /**
+     * Ставит столб в экранной координате {@code x}.
+     *
+     * @return номер сущности столба.
+     */
+    int place(float x, byte orientation)
+    {
+        boolean up = orientation == UP;
+        int pillar = entities.create();
+
+        entities.setPosition(pillar, x, up ? 0 : World.HEIGHT - pillarHeight);
+        entities.setScroll(pillar);
+        entities.setLifetime(pillar, pillarWidth);
+        entities.setCollider(pillar, pillarWidth, pillarHeight, up ? upMask : downMask);
+        entities.setHazard(pillar, DeathCause.PILLAR);
+        entities.setSprite(pillar, up ? upRegion : downRegion, Entities.BACK_LAYER);
+
+        lastPillar = pillar;
+
+        return pillar;
+    }
+
+    /**
+     * @return неподвижные препятствия, то есть столбы.
+     */
+    public Family getPillars()
+    {
+        return pillars;
+    }
+}
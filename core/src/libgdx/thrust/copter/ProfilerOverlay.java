@@ -0,0 +1,73 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Сводка {@link FrameProfiler} поверх игры. Текст пересобирается
+ * раз в {@value #REFRESH_FRAMES} кадров, чтобы его можно было прочесть
+ * и чтобы сам оверлей почти ничего не стоил.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class ProfilerOverlay
+{
+    private static final int REFRESH_FRAMES = 30;
+    private static final float FONT_SCALE = 0.35f;
+
+    private final FrameProfiler profiler;
+    private final BitmapFont font;
+    private final StringBuilder text = new StringBuilder(1024);
+
+    private boolean visible;
+    private int framesSinceRefresh = REFRESH_FRAMES;
+
+    public ProfilerOverlay(FrameProfiler profiler, BitmapFont font)
+    {
+        this.profiler = profiler;
+        this.font = font;
+    }
+
+    public void toggle()
+    {
+        visible = !visible;
+        framesSinceRefresh = REFRESH_FRAMES;
+    }
+
+    public boolean isVisible()
+    {
+        return visible;
+    }
+
+    /**
+     * Рисует сводку, если оверлей включён. Вызывается между
+     * {@code batch.begin()} и {@code batch.end()}.
+     */
+    public void draw(Batch batch, float x, float y)
+    {
+        if (!visible)
+        {
+            return;
+        }
+
+        if (++framesSinceRefresh >= REFRESH_FRAMES)
+        {
+            framesSinceRefresh = 0;
+
+            text.setLength(0);
+            text.append("frames ").append(profiler.getFrames()).append('\n');
+            profiler.appendSummary(text);
+        }
+
+        // Шрифт общий с HUD: его числа уже разложены в кэш,
+        // поэтому масштаб можно поменять на время и вернуть.
+        float scaleX = font.getScaleX();
+        float scaleY = font.getScaleY();
+
+        font.setScale(FONT_SCALE);
+        font.drawMultiLine(batch, text, x, y);
+        font.setScale(scaleX, scaleY);
+    }
+}
@@ -0,0 +1,85 @@
+package libgdx.thrust.copter;
+
+/**
+ * Уровни качества картинки от дешёвого к красивому. Каждый уровень
+ * задаёт бюджет и плотность частиц, дым за самолётом, частоту кадров
+ * анимации самолёта и как часто пересобирается HUD.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public enum QualityLevel
+{
+    LOW(150, 0.5f, false, 0.04f, 6),
+    MEDIUM(400, 0.75f, true, 0.02f, 3),
+    HIGH(1000, 1, true, 0.01f, 1);
+
+    // values() каждый раз копирует массив, а соседей спрашивают каждый кадр
+    private static final QualityLevel[] LEVELS = values();
+
+    private final int particleBudget;
+    private final float emissionScale;
+    private final boolean trails;
+    private final float planeFrameDuration;
+    private final int hudRefreshFrames;
+
+    QualityLevel(int particleBudget, float emissionScale, boolean trails, float planeFrameDuration,
+                 int hudRefreshFrames)
+    {
+        this.particleBudget = particleBudget;
+        this.emissionScale = emissionScale;
+        this.trails = trails;
+        this.planeFrameDuration = planeFrameDuration;
+        this.hudRefreshFrames = hudRefreshFrames;
+    }
+
+    /**
+     * @return уровень ниже или этот же, если ниже некуда.
+     */
+    public QualityLevel lower()
+    {
+        return ordinal() == 0 ? this : LEVELS[ordinal() - 1];
+    }
+
+    /**
+     * @return уровень выше или этот же, если выше некуда.
+     */
+    public QualityLevel higher()
+    {
+        return ordinal() == LEVELS.length - 1 ? this : LEVELS[ordinal() + 1];
+    }
+
+    public int getParticleBudget()
+    {
+        return particleBudget;
+    }
+
+    /**
+     * @return во сколько раз меньше частиц испускают новые эффекты.
+     */
+    public float getEmissionScale()
+    {
+        return emissionScale;
+    }
+
+    /**
+     * @return тянутся ли за самолётом следы.
+     */
+    public boolean hasTrails()
+    {
+        return trails;
+    }
+
+    public float getPlaneFrameDuration()
+    {
+        return planeFrameDuration;
+    }
+
+    /**
+     * @return не чаще скольких кадров пересобирается HUD.
+     */
+    public int getHudRefreshFrames()
+    {
+        return hudRefreshFrames;
+    }
+}
@@ -0,0 +1,217 @@
+package libgdx.thrust.copter;
+
+/**
+ * Подбирает {@link QualityLevel} по времени кадра: лучше проще
+ * картинка, чем пропущенные кадры. Смотрит на среднее за последние
+ * {@value #WINDOW} кадров время работы кадра — без ожидания vsync,
+ * иначе при vsync кадр всегда длится целевое время и уровень
+ * никогда не повышается. Часы скалера (задержка повышения, время
+ * на уровне) идут по полному времени кадра.
+ * <p>
+ * Чтобы уровень не прыгал туда-сюда, пороги понижения и повышения
+ * разнесены, после каждой смены окно набирается заново, а повышать
+ * уровень можно, только если кадры были быстрыми долго. Если
+ * повышение откатилось в течение {@value #UPGRADE_PROBATION} секунд,
+ * следующего приходится ждать вдвое дольше; повышение, которое
+ * продержалось этот срок, возвращает задержку к исходной.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class QualityScaler
+{
+    public interface Listener
+    {
+        /**
+         * @param averageFrameTime среднее время кадра, по которому принято решение.
+         */
+        void qualityChanged(QualityLevel from, QualityLevel to, float averageFrameTime);
+    }
+
+    private static final int WINDOW = 60;
+
+    // Понижаем, когда кадр в среднем дольше целевого на четверть,
+    // повышаем, когда он заметно короче целевого.
+    private static final float DOWNGRADE_RATIO = 1.25f;
+    private static final float UPGRADE_RATIO = 0.9f;
+
+    private static final float UPGRADE_DELAY = 10;
+    private static final float MAX_UPGRADE_DELAY = 160;
+    private static final float UPGRADE_PROBATION = 30;
+
+    // Кадры длиннее - это пауза или загрузка, а не нагрузка
+    private static final float MAX_FRAME_TIME = 0.25f;
+
+    private final float targetFrameTime;
+
+    private final float[] samples = new float[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private float sampleSum;
+
+    private QualityLevel level;
+    private boolean lastChangeWasUpgrade;
+    private float upgradeDelay = UPGRADE_DELAY;
+    private float fastTime;
+    private float timeSinceChange;
+
+    private final float[] timeAtLevel = new float[QualityLevel.values().length];
+    private int downgrades;
+    private int upgrades;
+
+    private Listener listener;
+
+    /**
+     * @param targetFrameTime желаемое время кадра в секундах.
+     */
+    public QualityScaler(float targetFrameTime, QualityLevel level)
+    {
+        if (targetFrameTime <= 0)
+        {
+            throw new IllegalArgumentException("Target frame time must be positive: " + targetFrameTime);
+        }
+
+        this.targetFrameTime = targetFrameTime;
+        this.level = level;
+    }
+
+    /**
+     * Учитывает очередной кадр.
+     *
+     * @param frameTime полное время кадра, вместе с ожиданием vsync.
+     * @param workTime  сколько из него кадр считал и рисовал.
+     * @return изменился ли уровень.
+     */
+    public boolean update(float frameTime, float workTime)
+    {
+        if (frameTime > MAX_FRAME_TIME)
+        {
+            return false;
+        }
+
+        timeAtLevel[level.ordinal()] += frameTime;
+        timeSinceChange += frameTime;
+
+        if (lastChangeWasUpgrade && timeSinceChange >= UPGRADE_PROBATION)
+        {
+            upgradeDelay = UPGRADE_DELAY;
+        }
+
+        sampleSum += workTime - samples[nextSample];
+        samples[nextSample] = workTime;
+        nextSample = (nextSample + 1) % WINDOW;
+
+        if (sampleCount < WINDOW)
+        {
+            sampleCount++;
+            return false;
+        }
+
+        float average = getAverageFrameTime();
+
+        if (average > targetFrameTime * DOWNGRADE_RATIO)
+        {
+            fastTime = 0;
+
+            if (level.lower() != level)
+            {
+                if (lastChangeWasUpgrade && timeSinceChange < UPGRADE_PROBATION)
+                {
+                    upgradeDelay = Math.min(upgradeDelay * 2, MAX_UPGRADE_DELAY);
+                }
+
+                downgrades++;
+                change(level.lower(), false, average);
+
+                return true;
+            }
+        }
+        else if (average < targetFrameTime * UPGRADE_RATIO)
+        {
+            fastTime += frameTime;
+
+            if (fastTime >= upgradeDelay && level.higher() != level)
+            {
+                upgrades++;
+                change(level.higher(), true, average);
+
+                return true;
+            }
+        }
+        else
+        {
+            fastTime = 0;
+        }
+
+        return false;
+    }
+
+    private void change(QualityLevel to, boolean upgrade, float average)
+    {
+        QualityLevel from = level;
+
+        level = to;
+        lastChangeWasUpgrade = upgrade;
+        fastTime = 0;
+        timeSinceChange = 0;
+
+        // Кадры старого уровня о новом ничего не говорят.
+        for (int i = 0; i < WINDOW; i++)
+        {
+            samples[i] = 0;
+        }
+
+        sampleCount = 0;
+        nextSample = 0;
+        sampleSum = 0;
+
+        if (listener != null)
+        {
+            listener.qualityChanged(from, to, average);
+        }
+    }
+
+    public QualityLevel getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * @return среднее время работы кадра в окне или 0, пока в нём нет кадров.
+     */
+    public float getAverageFrameTime()
+    {
+        return sampleCount == 0 ? 0 : sampleSum / sampleCount;
+    }
+
+    /**
+     * @return сколько секунд быстрых кадров нужно для следующего повышения.
+     */
+    public float getUpgradeDelay()
+    {
+        return upgradeDelay;
+    }
+
+    public int getDowngrades()
+    {
+        return downgrades;
+    }
+
+    public int getUpgrades()
+    {
+        return upgrades;
+    }
+
+    /**
+     * @return сколько секунд игра провела на уровне {@code level}.
+     */
+    public float getTimeAtLevel(QualityLevel level)
+    {
+        return timeAtLevel[level.ordinal()];
+    }
+
+    public void setListener(Listener listener)
+    {
+        this.listener = listener;
+    }
+}
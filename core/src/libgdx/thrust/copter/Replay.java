@@ -0,0 +1,208 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.utils.DataInput;
+import com.badlogic.gdx.utils.DataOutput;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Запись игры: зерно генератора, настройки мира, частота шагов
+ * и все касания с номером шага, на котором они обработаны.
+ * Этого достаточно, чтобы {@link ReplayPlayer} воспроизвёл игру
+ * побитово точно — с отрисовкой или без неё.
+ * <p>
+ * Двоичный формат: заголовок, затем на каждое касание приращение
+ * номера шага (varint) и координаты касания (два float).
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class Replay
+{
+    private static final int MAGIC = 0x54435250; // "TCRP"
+    private static final int VERSION = 4;
+
+    private final long seed;
+    private final int tickRate;
+    private final WorldSettings settings;
+
+    private final IntArray tapTicks = new IntArray();
+    private final FloatArray tapX = new FloatArray();
+    private final FloatArray tapY = new FloatArray();
+
+    private int length;
+    private int finalStateHash;
+
+    public Replay(long seed, int tickRate, WorldSettings settings)
+    {
+        this.seed = seed;
+        this.tickRate = tickRate;
+        this.settings = settings;
+    }
+
+    void addTap(int tick, float x, float y)
+    {
+        if (tapTicks.size > 0 && tick < tapTicks.peek())
+        {
+            throw new IllegalStateException("Taps must be recorded in tick order");
+        }
+
+        tapTicks.add(tick);
+        tapX.add(x);
+        tapY.add(y);
+    }
+
+    /**
+     * Завершает запись.
+     *
+     * @param ticks          сколько шагов длилась запись.
+     * @param finalStateHash {@link World#stateHash()} после последнего шага,
+     *                       по нему проверяется, что повтор не разошёлся.
+     */
+    public void finish(int ticks, int finalStateHash)
+    {
+        this.length = ticks;
+        this.finalStateHash = finalStateHash;
+    }
+
+    public void write(OutputStream stream) throws IOException
+    {
+        DataOutput output = new DataOutput(stream);
+
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(seed);
+        output.writeInt(tickRate, true);
+
+        output.writeFloat(settings.getMeteorIntervalMin());
+        output.writeFloat(settings.getMeteorIntervalMax());
+        output.writeFloat(settings.getPillarSpacingMin());
+        output.writeFloat(settings.getPillarSpacingMax());
+        output.writeFloat(settings.getPickupRateScale());
+        output.writeFloat(settings.getScrollAcceleration());
+        output.writeFloat(settings.getGravity());
+        output.writeInt(settings.getPillarCapacity(), true);
+        output.writeInt(settings.getMaxMeteors(), true);
+        output.writeInt(settings.getMeteorShowerSize(), true);
+        output.writeFloat(settings.getTerrainHeightMin());
+        output.writeFloat(settings.getTerrainHeightMax());
+
+        output.writeInt(length, true);
+        output.writeInt(finalStateHash);
+        output.writeInt(tapTicks.size, true);
+
+        int previousTick = 0;
+
+        for (int i = 0; i < tapTicks.size; i++)
+        {
+            output.writeInt(tapTicks.get(i) - previousTick, true);
+            output.writeFloat(tapX.get(i));
+            output.writeFloat(tapY.get(i));
+
+            previousTick = tapTicks.get(i);
+        }
+
+        output.flush();
+    }
+
+    public static Replay read(InputStream stream) throws IOException
+    {
+        DataInput input = new DataInput(stream);
+
+        if (input.readInt() != MAGIC)
+        {
+            throw new IOException("Not a replay file");
+        }
+
+        int version = input.readByte();
+
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+
+        long seed = input.readLong();
+        int tickRate = input.readInt(true);
+
+        WorldSettings settings = new WorldSettings();
+        settings.setMeteorInterval(input.readFloat(), input.readFloat());
+        settings.setPillarSpacing(input.readFloat(), input.readFloat());
+        settings.setPickupRateScale(input.readFloat());
+        settings.setScrollAcceleration(input.readFloat());
+        settings.setGravity(input.readFloat());
+        settings.setPillarCapacity(input.readInt(true));
+        settings.setMaxMeteors(input.readInt(true));
+        settings.setMeteorShowerSize(input.readInt(true));
+        settings.setTerrainHeight(input.readFloat(), input.readFloat());
+
+        Replay replay = new Replay(seed, tickRate, settings);
+
+        int length = input.readInt(true);
+        int finalStateHash = input.readInt();
+        int taps = input.readInt(true);
+
+        int tick = 0;
+
+        for (int i = 0; i < taps; i++)
+        {
+            tick += input.readInt(true);
+            replay.addTap(tick, input.readFloat(), input.readFloat());
+        }
+
+        replay.finish(length, finalStateHash);
+
+        return replay;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public int getTickRate()
+    {
+        return tickRate;
+    }
+
+    public WorldSettings getSettings()
+    {
+        return settings;
+    }
+
+    /**
+     * @return длина записи в шагах.
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    public int getFinalStateHash()
+    {
+        return finalStateHash;
+    }
+
+    public int getTapCount()
+    {
+        return tapTicks.size;
+    }
+
+    public int getTapTick(int i)
+    {
+        return tapTicks.get(i);
+    }
+
+    public float getTapX(int i)
+    {
+        return tapX.get(i);
+    }
+
+    public float getTapY(int i)
+    {
+        return tapY.get(i);
+    }
+}
@@ -0,0 +1,72 @@
+package libgdx.thrust.copter;
+
+/**
+ * Воспроизводит касания из {@link Replay}. Перед каждым шагом мира
+ * нужно вызвать {@link #feed(World)}.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class ReplayPlayer
+{
+    private final Replay replay;
+    private int nextTap;
+
+    public ReplayPlayer(Replay replay)
+    {
+        this.replay = replay;
+    }
+
+    /**
+     * Заводит мир от зерна записи и начинает воспроизведение сначала.
+     */
+    public void start(World world)
+    {
+        world.reset(replay.getSeed());
+        nextTap = 0;
+    }
+
+    /**
+     * Передаёт миру касания, записанные для его текущего шага.
+     */
+    public void feed(World world)
+    {
+        int tick = world.getTick();
+
+        while (nextTap < replay.getTapCount() && replay.getTapTick(nextTap) == tick)
+        {
+            world.tap(replay.getTapX(nextTap), replay.getTapY(nextTap));
+            nextTap++;
+        }
+    }
+
+    public boolean isFinished(World world)
+    {
+        return world.getTick() >= replay.getLength();
+    }
+
+    /**
+     * Прогоняет всю запись без отрисовки с максимальной скоростью.
+     *
+     * @return совпало ли итоговое состояние с записанным.
+     */
+    public boolean run(World world)
+    {
+        float step = 1f / replay.getTickRate();
+
+        start(world);
+
+        while (!isFinished(world))
+        {
+            feed(world);
+            world.step(step);
+        }
+
+        return world.stateHash() == replay.getFinalStateHash();
+    }
+
+    public Replay getReplay()
+    {
+        return replay;
+    }
+}
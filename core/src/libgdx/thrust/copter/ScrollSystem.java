@@ -0,0 +1,38 @@
+package libgdx.thrust.copter;
+
+/**
+ * Прокрутка: сдвигает сущности, стоящие в мире, влево на столько же,
+ * на сколько за шаг пролетел самолёт.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class ScrollSystem extends WorldSystem
+{
+    private final Entities entities;
+    private final Family scrolled;
+
+    public ScrollSystem(World world)
+    {
+        super(world, FrameStat.SCROLL);
+
+        entities = world.getEntities();
+        scrolled = entities.getFamily(Component.POSITION, Component.SCROLL);
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        float deltaPosition = world.getDeltaPosition();
+
+        for (int i = 0; i < scrolled.size(); i++)
+        {
+            entities.move(scrolled.get(i), -deltaPosition, 0);
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+}
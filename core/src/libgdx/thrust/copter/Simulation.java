@@ -0,0 +1,323 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Шагает {@link World} по {@link FixedTimestep} и отдаёт отрисовке
+ * снимки его состояния. Работает в одном из двух режимов.
+ * <p>
+ * Последовательно: шаги и снимок считаются прямо в
+ * {@link #update(float)}, в потоке отрисовки.
+ * <p>
+ * В отдельном потоке: {@link #update(float)} только забирает готовый
+ * снимок и отдаёт следующую порцию шагов {@link SimulationThread},
+ * а кадр рисуется, пока она считается. Снимков два: один рисуется,
+ * в другой пишет поток симуляции. Местами они меняются, когда поток
+ * закончил порцию, поэтому сами снимки без блокировок. Зато картинка
+ * отстаёт от симуляции на кадр. Поток отрисовки его не ждёт: если
+ * порция ещё считается, кадр снова рисует последний готовый снимок,
+ * а время кадра уходит в следующую порцию. На GWT потоков нет,
+ * и порция выполняется сразу: режим работает, но выигрыша не даёт.
+ * <p>
+ * Касания и события мира проходят через симуляцию. Каждое касание
+ * отдаётся миру перед тем шагом порции, на который пришлось время
+ * события, а не перед первым: при 30 кадрах в секунду это разница
+ * в шаг. Шаг берёт не больше одного касания, лишние переходят
+ * на следующие шаги, поэтому быстрые касания не сливаются в одно.
+ * События копятся в снимке, см.
+ * {@link WorldSnapshot#dispatchEvents(World.Listener)}.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class Simulation implements Disposable
+{
+    private final World world;
+    private final FixedTimestep timestep;
+    private final ReplayPlayer replayPlayer;
+    private final SimulationThread thread;
+
+    private WorldSnapshot front = new WorldSnapshot();
+    private WorldSnapshot back = new WorldSnapshot();
+
+    // Отдана ли потоку порция, чей снимок ещё не забран
+    private boolean submitted;
+    // Время кадров, пока поток считал прошлую порцию
+    private float unsentDelta;
+
+    // Параметры порции: выставляются до отправки в поток
+    // и до её окончания не меняются.
+    private int steps;
+    private float step;
+    private float alpha;
+
+    // Касания порции: x и y парами и номер шага, перед которым их отдать
+    private final FloatArray batchTaps = new FloatArray();
+    private final IntArray batchTapSteps = new IntArray();
+
+    // Касания из потока отрисовки, ещё не попавшие в порцию
+    private final FloatArray requestedTaps = new FloatArray();
+    private final LongArray requestedTimes = new LongArray();
+
+    /**
+     * @param replayPlayer запись, которая ведёт мир вместо игрока, или {@code null}.
+     * @param threaded     шагать мир в отдельном потоке.
+     */
+    public Simulation(World world, FixedTimestep timestep, ReplayPlayer replayPlayer, boolean threaded)
+    {
+        this.world = world;
+        this.timestep = timestep;
+        this.replayPlayer = replayPlayer;
+
+        thread = threaded ? new SimulationThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                runSteps();
+            }
+        }) : null;
+
+        front.capture(world, 0);
+        back.capture(world, 0);
+        world.setListener(back);
+    }
+
+    /**
+     * Касание в координатах камеры, случившееся только что.
+     */
+    public void tap(float x, float y)
+    {
+        tap(x, y, TimeUtils.nanoTime());
+    }
+
+    /**
+     * Касание в координатах камеры. Касания надо передавать в том
+     * порядке, в каком они случились: миру они уходят в нём же.
+     *
+     * @param time время события в шкале {@link TimeUtils#nanoTime()};
+     *             время вне кадра прижимается к нему.
+     */
+    public void tap(float x, float y, long time)
+    {
+        requestedTaps.add(x);
+        requestedTaps.add(y);
+        requestedTimes.add(time);
+    }
+
+    /**
+     * Передаёт все касания из очереди и очищает её.
+     */
+    public void tap(TapQueue taps)
+    {
+        for (int i = 0; i < taps.size(); i++)
+        {
+            tap(taps.getX(i), taps.getY(i), taps.getTime(i));
+        }
+
+        taps.clear();
+    }
+
+    /**
+     * Добавляет время кадра, закончившегося сейчас.
+     *
+     * @return снимок, который надо нарисовать в этом кадре. Он
+     * действителен до следующего вызова {@link #update(float)}
+     * или {@link #finish()}. В отдельном потоке это может быть снимок
+     * прошлого кадра, его события тогда уже переданы.
+     */
+    public WorldSnapshot update(float delta)
+    {
+        return update(delta, TimeUtils.nanoTime());
+    }
+
+    /**
+     * @param time конец кадра в шкале {@link TimeUtils#nanoTime()}.
+     * @see #update(float)
+     */
+    public WorldSnapshot update(float delta, long time)
+    {
+        if (thread == null)
+        {
+            prepareSteps(delta, time);
+            runSteps();
+
+            return back;
+        }
+
+        unsentDelta += delta;
+
+        // Ошибка в потоке симуляции всплывает здесь
+        if (thread.isBusy())
+        {
+            return front;
+        }
+
+        swap();
+
+        prepareSteps(unsentDelta, time);
+        unsentDelta = 0;
+
+        thread.submit();
+        submitted = true;
+
+        return front;
+    }
+
+    private void prepareSteps(float delta, long time)
+    {
+        steps = timestep.advance(delta);
+        step = timestep.getStep();
+        alpha = timestep.getAlpha();
+
+        scheduleTaps(time);
+    }
+
+    /**
+     * Дожидается порции шагов, если она считается. После этого мир
+     * до следующего {@link #update(float)} можно читать и менять
+     * из потока отрисовки.
+     */
+    public void finish()
+    {
+        if (thread != null)
+        {
+            thread.await();
+            swap();
+        }
+    }
+
+    /**
+     * Забирает снимок посчитанной порции. Поток симуляции должен
+     * быть свободен.
+     */
+    private void swap()
+    {
+        if (!submitted)
+        {
+            return;
+        }
+
+        submitted = false;
+
+        WorldSnapshot drawn = front;
+        front = back;
+        back = drawn;
+
+        world.setListener(back);
+    }
+
+    /**
+     * Раскладывает касания по шагам порции. Порция покрывает время
+     * до {@code time} минус недоигранная доля шага, и шаг {@code i}
+     * начинается за {@code steps - i + alpha} шагов до конца кадра.
+     * Касание отдаётся первому шагу, начавшемуся не раньше него,
+     * а касания после начала последнего шага ждут следующей порции.
+     * <p>
+     * Часы событий не обязаны идти в шкале {@link TimeUtils#nanoTime()}:
+     * на Android события приходят с ней, а LWJGL общей шкалы не обещает.
+     * Поэтому время касания прижимается к порции: касание старше её
+     * начала отдаётся первому шагу, а касание из будущего — последнему,
+     * ведь случилось оно точно до кадра. Порядок касаний сохраняется.
+     */
+    private void scheduleTaps(long time)
+    {
+        batchTaps.clear();
+        batchTapSteps.clear();
+
+        int scheduled = 0;
+        int lastStep = -1;
+
+        for (int i = 0; i < requestedTimes.size; i++)
+        {
+            long eventTime = requestedTimes.get(i);
+
+            // Возраст в шагах; из будущего — как у начала последнего шага,
+            // старше порции — как у начала первого.
+            float age = eventTime > time ? 1 + alpha : Math.min((time - eventTime) / 1e9f / step, steps + alpha);
+            int tapStep = Math.max(lastStep + 1, MathUtils.ceil(steps + alpha - age));
+
+            if (tapStep >= steps)
+            {
+                break;
+            }
+
+            batchTaps.add(requestedTaps.get(i * 2));
+            batchTaps.add(requestedTaps.get(i * 2 + 1));
+            batchTapSteps.add(tapStep);
+
+            lastStep = tapStep;
+            scheduled++;
+        }
+
+        if (scheduled > 0)
+        {
+            requestedTaps.removeRange(0, scheduled * 2 - 1);
+            requestedTimes.removeRange(0, scheduled - 1);
+        }
+
+        // Отложенное касание старше кадра: так оно не будет
+        // ждать вечно, даже если часы событий спешат.
+        for (int i = 0; i < requestedTimes.size; i++)
+        {
+            requestedTimes.set(i, Math.min(requestedTimes.get(i), time));
+        }
+    }
+
+    /**
+     * Порция шагов. В отдельном потоке вызывается им.
+     */
+    private void runSteps()
+    {
+        int nextTap = 0;
+
+        for (int i = 0; i < steps; i++)
+        {
+            if (nextTap < batchTapSteps.size && batchTapSteps.get(nextTap) == i)
+            {
+                world.tap(batchTaps.get(nextTap * 2), batchTaps.get(nextTap * 2 + 1));
+                nextTap++;
+            }
+
+            if (replayPlayer != null)
+            {
+                if (replayPlayer.isFinished(world))
+                {
+                    break;
+                }
+
+                replayPlayer.feed(world);
+            }
+
+            world.step(step);
+        }
+
+        back.capture(world, alpha);
+    }
+
+    public boolean isThreaded()
+    {
+        return thread != null;
+    }
+
+    public World getWorld()
+    {
+        return world;
+    }
+
+    @Override
+    public void dispose()
+    {
+        finish();
+
+        if (thread != null)
+        {
+            thread.dispose();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Один поток на всю жизнь симуляции, который по запросу выполняет
+ * одну и ту же задачу. Запросы и выполнения считают два счётчика:
+ * пока они не равны, поток занят. Счётчики volatile, поэтому всё,
+ * что записано до {@link #submit()}, видно задаче, а всё, что задача
+ * записала, видно после того, как {@link #isBusy()} вернул
+ * {@code false}. Монитор нужен только чтобы свободный поток спал,
+ * а не крутился. Запрос ничего не выделяет.
+ * <p>
+ * На GWT потоков нет, там класс заменён эмуляцией, которая выполняет
+ * задачу прямо в {@link #submit()}.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+class SimulationThread implements Disposable
+{
+    private final Runnable task;
+    private final Thread thread;
+    private final Object lock = new Object();
+
+    private volatile int requested;
+    private volatile int completed;
+    private volatile boolean stopped;
+
+    // Ошибка задачи, которую ещё не увидел поток отрисовки
+    private volatile Throwable error;
+
+    SimulationThread(Runnable task)
+    {
+        this.task = task;
+
+        thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                loop();
+            }
+        }, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loop()
+    {
+        while (true)
+        {
+            synchronized (lock)
+            {
+                while (requested == completed && !stopped)
+                {
+                    try
+                    {
+                        lock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                }
+
+                if (stopped)
+                {
+                    return;
+                }
+            }
+
+            try
+            {
+                task.run();
+            }
+            catch (Throwable t)
+            {
+                error = t;
+            }
+
+            synchronized (lock)
+            {
+                completed++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Просит выполнить задачу ещё раз. Звать, только когда поток
+     * свободен.
+     */
+    void submit()
+    {
+        if (isBusy())
+        {
+            throw new IllegalStateException("Simulation thread is busy");
+        }
+
+        synchronized (lock)
+        {
+            requested++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @return выполняется ли задача. Ошибка задачи всплывает здесь.
+     */
+    boolean isBusy()
+    {
+        boolean busy = completed != requested;
+
+        checkError();
+
+        return busy;
+    }
+
+    /**
+     * Ждёт, пока поток выполнит все запросы.
+     */
+    void await()
+    {
+        synchronized (lock)
+        {
+            while (completed != requested)
+            {
+                try
+                {
+                    lock.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new GdxRuntimeException("Interrupted while waiting for the simulation", e);
+                }
+            }
+        }
+
+        checkError();
+    }
+
+    private void checkError()
+    {
+        Throwable t = error;
+
+        if (t != null)
+        {
+            error = null;
+            throw new GdxRuntimeException("Simulation step failed", t);
+        }
+    }
+
+    /**
+     * Дожидается текущей задачи и останавливает поток.
+     */
+    @Override
+    public void dispose()
+    {
+        synchronized (lock)
+        {
+            stopped = true;
+            lock.notifyAll();
+        }
+
+        try
+        {
+            thread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Широкая фаза проверки столкновений: равномерная сетка по оси x,
+ * ячейки которой разложены по корзинам по модулю их числа.
+ * <p>
+ * Игра горизонтальная, поэтому сетка одномерная, а координаты
+ * берутся в системе прокрутки (экранный x плюс пройденный путь):
+ * в ней неподвижные относительно мира объекты не двигаются, и
+ * перекладывать их каждый шаг не нужно. Объект лежит в одной ячейке,
+ * по левому краю, а запрос расширяется влево на самую большую ширину,
+ * поэтому в ответе нет повторов. Точную проверку делает вызывающий.
+ * Когда объектов становится больше, чем корзин вдвое, корзин
+ * становится вдвое больше, так что запрос не зависит от их числа.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class SpatialHash
+{
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    // Запас на расхождение экранных координат с путём прокрутки,
+    // которые накапливаются разными сложениями float.
+    private static final float SLACK = 1;
+
+    private static final int LOAD_FACTOR = 2;
+
+    private final float inverseCellSize;
+    private IntArray[] buckets;
+    private int mask;
+
+    // Ячейка каждого идентификатора или ABSENT
+    private int[] cells = new int[0];
+    private float maxWidth;
+    private int size;
+
+    /**
+     * @param cellSize    ширина ячейки в пикселях.
+     * @param bucketCount число корзин, округляется вверх до степени двойки.
+     */
+    public SpatialHash(float cellSize, int bucketCount)
+    {
+        if (cellSize <= 0)
+        {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+
+        int length = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+
+        inverseCellSize = 1 / cellSize;
+        createBuckets(length);
+    }
+
+    private void createBuckets(int length)
+    {
+        buckets = new IntArray[length];
+        mask = length - 1;
+
+        for (int i = 0; i < length; i++)
+        {
+            buckets[i] = new IntArray(8);
+        }
+    }
+
+    /**
+     * @param id   неотрицательный идентификатор, уникальный в этой сетке.
+     * @param x    левый край в системе прокрутки.
+     * @param width ширина объекта.
+     */
+    public void insert(int id, float x, float width)
+    {
+        ensureId(id);
+
+        if (cells[id] != ABSENT)
+        {
+            throw new IllegalStateException("Already in the hash: " + id);
+        }
+
+        int cell = cellOf(x);
+
+        cells[id] = cell;
+        buckets[cell & mask].add(id);
+        maxWidth = Math.max(maxWidth, width);
+        size++;
+
+        if (size > buckets.length * LOAD_FACTOR)
+        {
+            rehash();
+        }
+    }
+
+    private void rehash()
+    {
+        IntArray[] old = buckets;
+
+        createBuckets(old.length << 1);
+
+        for (IntArray bucket : old)
+        {
+            for (int i = 0; i < bucket.size; i++)
+            {
+                int id = bucket.items[i];
+
+                buckets[cells[id] & mask].add(id);
+            }
+        }
+    }
+
+    public void remove(int id)
+    {
+        if (!contains(id))
+        {
+            throw new IllegalStateException("Not in the hash: " + id);
+        }
+
+        IntArray bucket = buckets[cells[id] & mask];
+        int index = bucket.indexOf(id);
+
+        // Порядок в корзине не важен: удаляем перестановкой последнего.
+        bucket.items[index] = bucket.items[bucket.size - 1];
+        bucket.size--;
+
+        cells[id] = ABSENT;
+        size--;
+    }
+
+    public boolean contains(int id)
+    {
+        return id >= 0 && id < cells.length && cells[id] != ABSENT;
+    }
+
+    /**
+     * Складывает в {@code result} всех, кто может пересекать
+     * отрезок {@code [minX, maxX]} системы прокрутки.
+     *
+     * @return число найденных.
+     */
+    public int query(float minX, float maxX, IntArray result)
+    {
+        result.clear();
+
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        int first = cellOf(minX - maxWidth - SLACK);
+        int last = cellOf(maxX + SLACK);
+        int count = Math.min(last - first + 1, buckets.length);
+
+        for (int c = 0; c < count; c++)
+        {
+            IntArray bucket = buckets[(first + c) & mask];
+
+            for (int i = 0; i < bucket.size; i++)
+            {
+                int id = bucket.items[i];
+                int cell = cells[id];
+
+                // В корзине бывают и далёкие ячейки с тем же остатком.
+                if (cell >= first && cell <= last)
+                {
+                    result.add(id);
+                }
+            }
+        }
+
+        return result.size;
+    }
+
+    public void clear()
+    {
+        if (size == 0)
+        {
+            return;
+        }
+
+        for (IntArray bucket : buckets)
+        {
+            for (int i = 0; i < bucket.size; i++)
+            {
+                cells[bucket.items[i]] = ABSENT;
+            }
+
+            bucket.clear();
+        }
+
+        maxWidth = 0;
+        size = 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    private int cellOf(float x)
+    {
+        return (int) Math.floor(x * inverseCellSize);
+    }
+
+    private void ensureId(int id)
+    {
+        if (id < 0)
+        {
+            throw new IllegalArgumentException("Id must be non-negative: " + id);
+        }
+
+        if (id < cells.length)
+        {
+            return;
+        }
+
+        // Растём только пока растёт число объектов, в установившемся
+        // режиме не выделяем.
+        int[] grown = new int[Math.max(16, Integer.highestOneBit(id) << 1)];
+        System.arraycopy(cells, 0, grown, 0, cells.length);
+
+        for (int i = cells.length; i < grown.length; i++)
+        {
+            grown[i] = ABSENT;
+        }
+
+        cells = grown;
+    }
+}
@@ -0,0 +1,178 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Размеры спрайтов по именам регионов атласа. Нужны симуляции,
+ * которая не должна зависеть от загруженных текстур: в игре размеры
+ * берутся из {@link TextureAtlas}, без GPU — из разобранного .pack-файла.
+ * <p>
+ * Для спрайтов, которые сталкиваются, сюда же запекаются
+ * {@link CollisionMask маски} — один раз, из пикселей страниц атласа.
+ * Спрайт без запечённой маски сталкивается всем прямоугольником.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class SpriteMetrics
+{
+    private final ObjectIntMap<String> widths = new ObjectIntMap<String>();
+    private final ObjectIntMap<String> heights = new ObjectIntMap<String>();
+    private final ObjectMap<String, CollisionMask> masks = new ObjectMap<String, CollisionMask>();
+
+    public static SpriteMetrics fromAtlas(TextureAtlas atlas)
+    {
+        SpriteMetrics metrics = new SpriteMetrics();
+        Array<TextureAtlas.AtlasRegion> regions = atlas.getRegions();
+
+        for (int i = 0; i < regions.size; i++)
+        {
+            TextureAtlas.AtlasRegion region = regions.get(i);
+            metrics.put(region.name, region.getRegionWidth(), region.getRegionHeight());
+        }
+
+        return metrics;
+    }
+
+    public static SpriteMetrics fromAtlasData(TextureAtlas.TextureAtlasData data)
+    {
+        SpriteMetrics metrics = new SpriteMetrics();
+        Array<TextureAtlas.TextureAtlasData.Region> regions = data.getRegions();
+
+        for (int i = 0; i < regions.size; i++)
+        {
+            TextureAtlas.TextureAtlasData.Region region = regions.get(i);
+            metrics.put(region.name, region.width, region.height);
+        }
+
+        return metrics;
+    }
+
+    public void put(String name, int width, int height)
+    {
+        widths.put(name, width);
+        heights.put(name, height);
+    }
+
+    /**
+     * Запекает маски регионов {@code names} из пикселей страниц атласа.
+     * Текстуры атласа должны уметь заново прочитать свои пиксели, как
+     * загруженные из файла.
+     */
+    public void bakeMasks(TextureAtlas atlas, String... names)
+    {
+        ObjectMap<Texture, Pixmap> pages = new ObjectMap<Texture, Pixmap>();
+
+        try
+        {
+            for (String name : names)
+            {
+                TextureAtlas.AtlasRegion region = atlas.findRegion(name);
+
+                if (region == null)
+                {
+                    throw new IllegalArgumentException("Unknown sprite: " + name);
+                }
+
+                if (region.rotate)
+                {
+                    throw new IllegalArgumentException("Rotated sprites can't have masks: " + name);
+                }
+
+                Pixmap pixmap = pages.get(region.getTexture());
+
+                if (pixmap == null)
+                {
+                    pixmap = readPixels(region.getTexture());
+                    pages.put(region.getTexture(), pixmap);
+                }
+
+                putMask(name, CollisionMask.fromPixmap(pixmap, region.getRegionX(), region.getRegionY(),
+                        region.getRegionWidth(), region.getRegionHeight()));
+            }
+        }
+        finally
+        {
+            for (Pixmap pixmap : pages.values())
+            {
+                pixmap.dispose();
+            }
+        }
+    }
+
+    private static Pixmap readPixels(Texture texture)
+    {
+        TextureData data = texture.getTextureData();
+
+        if (data.getType() != TextureData.TextureDataType.Pixmap)
+        {
+            throw new IllegalArgumentException("Texture pixels can't be read: " + data.getType());
+        }
+
+        if (!data.isPrepared())
+        {
+            data.prepare();
+        }
+
+        Pixmap pixmap = data.consumePixmap();
+
+        // Данные, которые не отдают свой пиксмап, освобождать нельзя:
+        // работаем с копией.
+        if (!data.disposePixmap())
+        {
+            Pixmap copy = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), pixmap.getFormat());
+            copy.drawPixmap(pixmap, 0, 0);
+            pixmap = copy;
+        }
+
+        return pixmap;
+    }
+
+    public void putMask(String name, CollisionMask mask)
+    {
+        if (mask.getWidth() != getWidth(name) || mask.getHeight() != getHeight(name))
+        {
+            throw new IllegalArgumentException("Mask size doesn't match sprite " + name + ": "
+                    + mask.getWidth() + "x" + mask.getHeight());
+        }
+
+        masks.put(name, mask);
+    }
+
+    /**
+     * @return запечённая маска спрайта или новая сплошная по его
+     * прямоугольнику.
+     */
+    public CollisionMask getMask(String name)
+    {
+        CollisionMask mask = masks.get(name);
+
+        return mask != null ? mask : CollisionMask.solid(getWidth(name), getHeight(name));
+    }
+
+    public int getWidth(String name)
+    {
+        check(name);
+        return widths.get(name, 0);
+    }
+
+    public int getHeight(String name)
+    {
+        check(name);
+        return heights.get(name, 0);
+    }
+
+    private void check(String name)
+    {
+        if (!widths.containsKey(name))
+        {
+            throw new IllegalArgumentException("Unknown sprite: " + name);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * Очередь касаний. В отличие от {@code Gdx.input.justTouched()}, раз
+ * в кадр, ловит каждое нажатие каждым пальцем вместе со временем
+ * события, чтобы симуляция отдала его в тот шаг, когда оно случилось.
+ * Ставится как {@link com.badlogic.gdx.InputProcessor}; события
+ * приходят в потоке отрисовки до кадра, там же очередь и разбирается.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class TapQueue extends InputAdapter
+{
+    private final Camera camera;
+    private final Vector3 touchPosition = new Vector3();
+
+    // Касание занимает два числа: x и y в координатах камеры
+    private final FloatArray positions = new FloatArray();
+    private final IntArray pointers = new IntArray();
+    private final LongArray times = new LongArray();
+
+    /**
+     * @param camera камера, в координаты которой переводятся касания.
+     */
+    public TapQueue(Camera camera)
+    {
+        this.camera = camera;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button)
+    {
+        touchPosition.set(screenX, screenY, 0);
+        camera.unproject(touchPosition);
+
+        positions.add(touchPosition.x);
+        positions.add(touchPosition.y);
+        pointers.add(pointer);
+        times.add(Gdx.input.getCurrentEventTime());
+
+        return true;
+    }
+
+    public int size()
+    {
+        return pointers.size;
+    }
+
+    public float getX(int index)
+    {
+        return positions.get(index * 2);
+    }
+
+    public float getY(int index)
+    {
+        return positions.get(index * 2 + 1);
+    }
+
+    public int getPointer(int index)
+    {
+        return pointers.get(index);
+    }
+
+    /**
+     * @return время события по часам ввода. Обычно это шкала
+     * {@link com.badlogic.gdx.utils.TimeUtils#nanoTime()}, но не на каждом
+     * бэкенде, поэтому {@link Simulation} прижимает его к кадру.
+     */
+    public long getTime(int index)
+    {
+        return times.get(index);
+    }
+
+    public void clear()
+    {
+        positions.clear();
+        pointers.clear();
+        times.clear();
+    }
+}
@@ -0,0 +1,242 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Random;
+
+/**
+ * Земля снизу и потолок сверху: две полосы высот, которые
+ * генерируются впереди камеры. Высоты лежат отсчётами через
+ * {@link #SPACING} пикселей по x прокрутки в кольцевых массивах
+ * {@code short}: по x сразу находится индекс отсчёта, а между
+ * отсчётами высота идёт отрезком. Поэтому проверка самолёта —
+ * несколько поисков по индексу на столбец его маски, сколько бы
+ * земли ни было пройдено.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class TerrainSystem extends WorldSystem
+{
+    // Ширина текстуры земли кратна шагу, поэтому отрезок
+    // при отрисовке не переходит через край текстуры.
+    public static final int SPACING = 8;
+
+    // Отсчётов в кольце: экран, запас впереди и больше экрана позади
+    private static final int CAPACITY = 256;
+    private static final int INDEX_MASK = CAPACITY - 1;
+
+    // Сколько пикселей за правым краем экрана уже сгенерировано
+    private static final int AHEAD = 128;
+
+    // Склон тянется столько отсчётов и идёт не круче SLOPE_MAX
+    // пикселей на отсчёт, как холмы на текстуре земли.
+    private static final int RUN_MIN = 6;
+    private static final int RUN_MAX = 24;
+    private static final float SLOPE_MAX = 4;
+
+    /**
+     * Полоса высот и состояние её генератора.
+     */
+    private static class Band
+    {
+        final short[] samples = new short[CAPACITY];
+
+        float height;
+        float slope;
+        int run;
+    }
+
+    private final WorldSettings settings;
+    private final Random random;
+
+    private final Band floor = new Band();
+    private final Band ceiling = new Band();
+
+    // Профиль самолёта: нижняя и верхняя непрозрачные строки столбцов
+    // маски, -1 у пустых. Крайние значения — для быстрого отказа.
+    private final int[] planeBottoms;
+    private final int[] planeTops;
+    private int planeLowest;
+    private int planeHighest;
+
+    // Сгенерированы отсчёты [start, end), в кольце из них последние CAPACITY
+    private int start;
+    private int end;
+
+    public TerrainSystem(World world, SpriteMetrics metrics)
+    {
+        super(world, FrameStat.TERRAIN);
+
+        settings = world.getSettings();
+        random = world.getRandom();
+
+        CollisionMask planeMask = metrics.getMask(World.PLANE_REGION);
+
+        planeBottoms = new int[planeMask.getWidth()];
+        planeTops = new int[planeMask.getWidth()];
+        planeLowest = planeMask.getHeight();
+        planeHighest = -1;
+
+        for (int x = 0; x < planeBottoms.length; x++)
+        {
+            planeBottoms[x] = planeMask.getColumnBottom(x);
+            planeTops[x] = planeMask.getColumnTop(x);
+
+            if (planeBottoms[x] >= 0)
+            {
+                planeLowest = Math.min(planeLowest, planeBottoms[x]);
+                planeHighest = Math.max(planeHighest, planeTops[x]);
+            }
+        }
+    }
+
+    @Override
+    public void update(float deltaTime)
+    {
+        float scrollDistance = world.getScrollDistance();
+
+        generate(scrollDistance);
+
+        Vector2 position = world.getPlanePosition();
+        int planeX = MathUtils.floor(position.x);
+        int planeY = MathUtils.floor(position.y);
+
+        // Выше самой высокой земли и ниже самого низкого потолка
+        // задеть нечего.
+        float heightMax = settings.getTerrainHeightMax();
+
+        if (planeY + planeLowest >= heightMax && planeY + planeHighest + 1 <= World.HEIGHT - heightMax)
+        {
+            return;
+        }
+
+        for (int column = 0; column < planeBottoms.length; column++)
+        {
+            if (planeBottoms[column] < 0)
+            {
+                continue;
+            }
+
+            // Середина столбца в координатах прокрутки
+            float x = planeX + column + 0.5f + scrollDistance;
+
+            if (planeY + planeBottoms[column] < heightAt(floor, x)
+                    || planeY + planeTops[column] + 1 > World.HEIGHT - heightAt(ceiling, x))
+            {
+                world.endGame(DeathCause.TERRAIN);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Генерирует отсчёты до {@link #AHEAD} пикселей за правым краем экрана.
+     */
+    private void generate(float scrollDistance)
+    {
+        int last = MathUtils.floor((scrollDistance + World.WIDTH + AHEAD) / SPACING);
+
+        while (end <= last)
+        {
+            extend(floor, end);
+            extend(ceiling, end);
+            end++;
+        }
+
+        start = Math.max(start, end - CAPACITY);
+    }
+
+    /**
+     * Отсчёт {@code index} полосы: продолжает текущий склон или
+     * выбирает следующую высоту и ведёт к ней новый.
+     */
+    private void extend(Band band, int index)
+    {
+        if (band.run == 0)
+        {
+            float min = settings.getTerrainHeightMin();
+            float target = min + random.nextFloat() * (settings.getTerrainHeightMax() - min);
+
+            band.run = RUN_MIN + random.nextInt(RUN_MAX - RUN_MIN + 1);
+            band.slope = MathUtils.clamp((target - band.height) / band.run, -SLOPE_MAX, SLOPE_MAX);
+        }
+
+        band.height += band.slope;
+        band.run--;
+
+        band.samples[index & INDEX_MASK] = (short) MathUtils.round(band.height);
+    }
+
+    /**
+     * @param x координата прокрутки.
+     */
+    private float heightAt(Band band, float x)
+    {
+        float position = x / SPACING;
+        int index = MathUtils.floor(position);
+
+        return MathUtils.lerp(sample(band, index), sample(band, index + 1), position - index);
+    }
+
+    /**
+     * За пределами сгенерированного полоса продолжается крайним отсчётом.
+     */
+    private int sample(Band band, int index)
+    {
+        return band.samples[MathUtils.clamp(index, start, end - 1) & INDEX_MASK];
+    }
+
+    @Override
+    public void reset()
+    {
+        start = 0;
+        end = 0;
+
+        resetBand(floor);
+        resetBand(ceiling);
+
+        generate(world.getScrollDistance());
+    }
+
+    private void resetBand(Band band)
+    {
+        band.height = settings.getTerrainHeightMin();
+        band.slope = 0;
+        band.run = 0;
+    }
+
+    /**
+     * @return высота земли в отсчёте {@code index}, то есть
+     * на x прокрутки {@code index * SPACING}.
+     */
+    public int getFloorSample(int index)
+    {
+        return sample(floor, index);
+    }
+
+    /**
+     * @return на сколько потолок опускается от верха мира в отсчёте {@code index}.
+     */
+    public int getCeilingSample(int index)
+    {
+        return sample(ceiling, index);
+    }
+
+    /**
+     * @return высота земли под экранным {@code x}.
+     */
+    public float getFloorHeight(float x)
+    {
+        return heightAt(floor, x + world.getScrollDistance());
+    }
+
+    /**
+     * @return на сколько потолок опускается от верха мира над экранным {@code x}.
+     */
+    public float getCeilingHeight(float x)
+    {
+        return heightAt(ceiling, x + world.getScrollDistance());
+    }
+}
@@ -1,16 +1,16 @@
 package libgdx.thrust.copter;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.audio.Music;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.FPSLogger;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
@@ -23,7 +23,25 @@ public class ThrustCopter extends Game
     private static final int screenWidth = 800;
     private static final int screenHeight = 480;
 
-    private FPSLogger fpsLogger;
+    private static final int DEFAULT_TICK_RATE = 60;
+    private static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+
+    // Под какое время кадра подстраивается качество картинки
+    private static final float TARGET_FRAME_TIME = 1f / 60;
+
+    // Сколько миллисекунд кадра отдаём фоновой загрузке групп
+    private static final int BACKGROUND_BUDGET_MILLIS = 2;
+
+    private final int tickRate;
+    private final int maxStepsPerFrame;
+
+    private String recordPath;
+    private String replayPath;
+    private String profilePath;
+    private boolean threadedSimulation;
+
+    private FrameProfiler profiler = FrameProfiler.DISABLED;
+    private ProfilerOverlay profilerOverlay;
 
     private Viewport viewport;
 
@@ -34,48 +52,145 @@ public class ThrustCopter extends Game
     private TextureAtlas atlas;
 
     private AssetManager manager = new AssetManager();
+    private AssetGroups assets = new AssetGroups(manager);
+
+    // Живёт дольше сцен: уровень, подобранный под устройство, не теряется
+    private QualityScaler qualityScaler = new QualityScaler(TARGET_FRAME_TIME, QualityLevel.HIGH);
+
+    private long createTime;
+    private long startupMillis = -1;
 
     public ThrustCopter()
     {
-        fpsLogger = new FPSLogger();
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_STEPS_PER_FRAME);
+    }
+
+    /**
+     * @param tickRate         частота шагов симуляции в секунду.
+     * @param maxStepsPerFrame сколько шагов симуляции можно догнать за кадр.
+     */
+    public ThrustCopter(int tickRate, int maxStepsPerFrame)
+    {
+        this.tickRate = tickRate;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+
         createCamera();
+
+        qualityScaler.setListener(new QualityScaler.Listener()
+        {
+            @Override
+            public void qualityChanged(QualityLevel from, QualityLevel to, float averageFrameTime)
+            {
+                Gdx.app.log("ThrustCopter", "Quality " + from + " -> " + to + " at "
+                        + (averageFrameTime * 1000) + " ms per frame, "
+                        + qualityScaler.getDowngrades() + " downgrades, "
+                        + qualityScaler.getUpgrades() + " upgrades");
+            }
+        });
     }
 
     @Override
     public void create()
     {
-        initAssetManager();
+        createTime = TimeUtils.millis();
+
+        if (profilePath != null)
+        {
+            profiler = new FrameProfiler(true);
+            GLProfiler.enable();
+        }
 
         batch = new SpriteBatch();
-        atlas = manager.get("ThrustCopter.pack", TextureAtlas.class);
 
-        setScreen(new ThrustCopterScene(this));
+        setScreen(new LoadingScreen(this, AssetGroups.GAMEPLAY));
+    }
+
+    /**
+     * Вызывается экраном загрузки, когда группа загружена.
+     */
+    void groupLoaded(String group)
+    {
+        if (group.equals(AssetGroups.GAMEPLAY))
+        {
+            atlas = manager.get(AssetGroups.ATLAS, TextureAtlas.class);
+
+            if (profiler.isEnabled() && profilerOverlay == null)
+            {
+                profilerOverlay = new ProfilerOverlay(profiler,
+                        manager.get("impact-40.fnt", BitmapFont.class));
+            }
+
+            setScreen(new ThrustCopterScene(this));
+        }
+
+        if (startupMillis < 0)
+        {
+            startupMillis = TimeUtils.timeSinceMillis(createTime);
+            Gdx.app.log("ThrustCopter", "Interactive after " + startupMillis + " ms");
+        }
     }
 
-    private void initAssetManager()
+    /**
+     * Экраны одноразовые: спрятанный экран больше не показывается,
+     * поэтому сразу освобождается — сцена останавливает поток
+     * симуляции. Game сам зовёт у старого экрана только hide().
+     */
+    @Override
+    public void setScreen(Screen screen)
     {
-        manager.load("smoke", ParticleEffect.class);
-        manager.load("explosion", ParticleEffect.class);
-        manager.load("impact-40.fnt", BitmapFont.class);
-        manager.load("gameover.png", Texture.class);
-        manager.load("sounds/journey.mp3", Music.class);
-        manager.load("sounds/pop.ogg", Sound.class);
-        manager.load("sounds/crash.ogg", Sound.class);
-        manager.load("sounds/alarm.ogg", Sound.class);
-        manager.load("ThrustCopter.pack", TextureAtlas.class);
-        manager.load("sounds/shield.ogg", Sound.class);
-        manager.load("sounds/fuel.ogg", Sound.class);
-        manager.load("sounds/star.ogg", Sound.class);
-        manager.load("life.png", Texture.class);
+        Screen previous = getScreen();
+
+        super.setScreen(screen);
 
-        manager.finishLoading();
+        if (previous != null && previous != screen)
+        {
+            previous.dispose();
+        }
     }
 
     @Override
     public void render()
     {
-        fpsLogger.log();
+        profiler.beginFrame();
+        profiler.begin(FrameStat.FRAME);
+
+        // Группы, захваченные экраном без экрана загрузки,
+        // догружаются понемногу во время игры. Экран загрузки
+        // сам отдаёт загрузке почти весь кадр.
+        if (!(getScreen() instanceof LoadingScreen))
+        {
+            manager.update(BACKGROUND_BUDGET_MILLIS);
+        }
+
         super.render();
+
+        profiler.end(FrameStat.FRAME);
+        profiler.endFrame();
+
+        if (profilerOverlay != null)
+        {
+            drawProfilerOverlay();
+        }
+    }
+
+    /**
+     * Оверлей рисуется после замера кадра и в него не входит.
+     * Включается клавишей F3 или кнопкой меню.
+     */
+    private void drawProfilerOverlay()
+    {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3) || Gdx.input.isKeyJustPressed(Input.Keys.MENU))
+        {
+            profilerOverlay.toggle();
+        }
+
+        if (profilerOverlay.isVisible())
+        {
+            batch.setProjectionMatrix(camera.combined);
+            batch.begin();
+            profilerOverlay.draw(batch, 10, screenHeight - 10);
+            batch.end();
+        }
     }
 
     @Override
@@ -87,8 +202,26 @@ public class ThrustCopter extends Game
     @Override
     public void dispose()
     {
+        // Game.dispose прячет текущий экран: сцена сохраняет запись
+        // и отпускает свои группы до выгрузки всех ресурсов. Освобождаем
+        // его сами, как и при смене экрана.
+        Screen last = getScreen();
+
+        super.dispose();
+
+        if (last != null)
+        {
+            last.dispose();
+        }
+
+        if (profilePath != null)
+        {
+            Gdx.files.local(profilePath).writeString(profiler.toCsv(), false);
+            GLProfiler.disable();
+        }
+
         batch.dispose();
-        atlas.dispose();
+        manager.dispose();
     }
 
     private void createCamera()
@@ -108,6 +241,92 @@ public class ThrustCopter extends Game
         return screenHeight;
     }
 
+    /**
+     * @return сколько миллисекунд прошло от запуска до первого
+     * кадра игры или -1, пока игра грузится.
+     */
+    public long getStartupMillis()
+    {
+        return startupMillis;
+    }
+
+    public int getTickRate()
+    {
+        return tickRate;
+    }
+
+    public int getMaxStepsPerFrame()
+    {
+        return maxStepsPerFrame;
+    }
+
+    public String getRecordPath()
+    {
+        return recordPath;
+    }
+
+    /**
+     * @param recordPath локальный файл, куда при закрытии сцены
+     *                   сохраняется запись игры, или {@code null}.
+     */
+    public void setRecordPath(String recordPath)
+    {
+        this.recordPath = recordPath;
+    }
+
+    public String getReplayPath()
+    {
+        return replayPath;
+    }
+
+    /**
+     * @param replayPath локальный файл записи, которую сцена
+     *                   воспроизводит вместо ввода игрока, или {@code null}.
+     */
+    public void setReplayPath(String replayPath)
+    {
+        this.replayPath = replayPath;
+    }
+
+    public String getProfilePath()
+    {
+        return profilePath;
+    }
+
+    /**
+     * @param profilePath локальный файл, куда при выходе пишутся
+     *                    перцентили фаз кадра, или {@code null}.
+     *                    Задаётся до запуска: включает профайлер и
+     *                    оверлей с ним.
+     */
+    public void setProfilePath(String profilePath)
+    {
+        this.profilePath = profilePath;
+    }
+
+    public boolean isThreadedSimulation()
+    {
+        return threadedSimulation;
+    }
+
+    /**
+     * @param threadedSimulation шагать мир в отдельном потоке, пока
+     *                           рисуется прошлый кадр. Действует на
+     *                           следующую созданную сцену.
+     */
+    public void setThreadedSimulation(boolean threadedSimulation)
+    {
+        this.threadedSimulation = threadedSimulation;
+    }
+
+    /**
+     * @return профайлер кадра, выключенный, если не задан файл профиля.
+     */
+    public FrameProfiler getProfiler()
+    {
+        return profiler;
+    }
+
     public OrthographicCamera getCamera()
     {
         return camera;
@@ -127,4 +346,18 @@ public class ThrustCopter extends Game
     {
         return manager;
     }
+
+    public AssetGroups getAssets()
+    {
+        return assets;
+    }
+
+    /**
+     * @return подбор качества картинки с его метриками: текущий
+     * уровень, число понижений и повышений и время на каждом уровне.
+     */
+    public QualityScaler getQualityScaler()
+    {
+        return qualityScaler;
+    }
 }
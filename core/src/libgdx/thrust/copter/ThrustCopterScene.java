@@ -5,94 +5,57 @@ import com.badlogic.gdx.ScreenAdapter;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.*;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.utils.Array;
-
-public class ThrustCopterScene extends ScreenAdapter
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Экран игры. Вся логика живёт в {@link World}, сцена лишь передаёт
+ * в него касания, шагает его с фиксированной частотой через
+ * {@link Simulation}, рисует снимки его состояния и отвечает на
+ * события звуком и эффектами.
+ */
+public class ThrustCopterScene extends ScreenAdapter implements World.Listener
 {
-    private final Vector2 DAMPING = new Vector2(0.99f, 0.99f);
-    private static final float TAP_DRAW_TIME_MAX = 1.0f;
-    private static final int TOUCH_IMPULSE = 500;
-    private static final int METEOR_SPEED = 30;
-
-    private final ParticleEffect smoke;
-    private final ParticleEffect explosion;
-
-    private TextureAtlas.AtlasRegion background;
-
-    private Texture fuelIndicator;
-    private TextureRegion terrainBelow;
-    private TextureRegion terrainAbove;
-    private TextureRegion tapIndicator;
-    private TextureRegion tap1;
-    private TextureRegion gameOver;
-    private TextureRegion pillarDown;
-    private TextureRegion pillarUp;
-    private TextureRegion selectedMeteorTexture;
-
-    private Array<Vector2> pillars = new Array<Vector2>();
-    Array<TextureAtlas.AtlasRegion> meteorTextures = new Array<TextureAtlas.AtlasRegion>();
-
-    private Animation plane;
+    private final ParticleEffects effects = new ParticleEffects(QualityLevel.HIGH.getParticleBudget());
+    private final QualityScaler quality;
+    private final FrameProfiler profiler;
 
-    private float terrainOffset;
-    private float planeAnimTime;
-    private float tapDrawTime;
-    private float deltaPosition;
-    private float nextMeteorIn;
+    // Дым за самолётом, пока он летит
+    private PooledEffect smoke;
 
-    private boolean meteorInScene;
+    private final WorldRenderer renderer;
 
-    // Скорость
-    private Vector2 planeVelocity = new Vector2();
-    private Vector2 scrollVelocity = new Vector2();
-    private Vector2 planePosition = new Vector2();
-    private Vector2 lastPillarPosition = new Vector2();
-    private Vector2 planeDefaultPosition = new Vector2();
-    private Vector2 gravity = new Vector2();
-    private Vector2 meteorPosition = new Vector2();
-    private Vector2 meteorVelocity = new Vector2();
+    private final World world;
+    private final FixedTimestep timestep;
+    private final Simulation simulation;
 
-    private Vector3 touchPosition = new Vector3();
+    private final String recordPath;
+    private final ReplayPlayer replayPlayer;
 
-    private GameState gameState = GameState.INIT;
+    // Сколько раз батч отправил вершины на GPU за последний кадр
+    private int renderCalls;
 
-    private Rectangle planeRect = new Rectangle();
-    private Rectangle obstacleRect = new Rectangle();
+    // Касания игрока; при воспроизведении записи не ставится
+    private final TapQueue taps;
 
+    // Музыка догружается уже во время игры, до того её нет
     private Music music;
 
-    private Sound tapSound;
-    private Sound crashSound;
-    private Sound spawnSound;
-
     private SpriteBatch batch;
     private TextureAtlas atlas;
     private OrthographicCamera camera;
     private AssetManager manager;
-    private final BitmapFont font;
-
-    private Vector3 pickupTiming = new Vector3();
-    private Array<Pickup> pickupsInScene = new Array<Pickup>();
-    private Pickup tempPickup;
-    private int starCount;
-    private float fuelCount;
-    private float shieldCount;
-    private float score;
-    private int fuelPercentage;
-
-    private static enum GameState
-    {
-        INIT, ACTION, GAME_OVER
-    }
+    private AssetGroups assets;
+    private boolean assetsReleased;
 
     public ThrustCopterScene(ThrustCopter thrustCopter)
     {
@@ -100,548 +63,351 @@ public class ThrustCopterScene extends ScreenAdapter
         atlas = thrustCopter.getAtlas();
         camera = thrustCopter.getCamera();
         manager = thrustCopter.getManager();
-
-        font = manager.get("impact-40.fnt", BitmapFont.class);
-
-        createTextRegions(atlas, manager);
-
-        Sprite backgroundSprite = new Sprite(background);
-        backgroundSprite.setPosition(0, 0);
-
-        // Переворачиваем
-        terrainAbove.flip(true, true);
-
-        plane = new Animation(0.01f,
-                new TextureRegion(atlas.findRegion("planeRed1")),
-                new TextureRegion(atlas.findRegion("planeRed2")),
-                new TextureRegion(atlas.findRegion("planeRed3")),
-                new TextureRegion(atlas.findRegion("planeRed2")));
-        plane.setPlayMode(Animation.PlayMode.LOOP);
-
-        music = manager.get("sounds/journey.mp3", Music.class);
-        music.setLooping(true);
-        music.play();
-
-        tapSound = manager.get("sounds/pop.ogg", Sound.class);
-        crashSound = manager.get("sounds/crash.ogg", Sound.class);
-        spawnSound = manager.get("sounds/alarm.ogg", Sound.class);
-
-        smoke = manager.get("smoke", ParticleEffect.class);
-        explosion = manager.get("explosion", ParticleEffect.class);
-
-        resetScene();
-    }
-
-    @Override
-    public void render(float delta)
-    {
-        Gdx.gl.glClearColor(0, 0, 0, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-
-        updateScene(delta);
-        drawScene();
-    }
-
-    private void drawScene()
-    {
-        camera.update();
-
-        batch.setProjectionMatrix(camera.combined);
-
-        batch.begin();
-
-        drawBackground();
-
-        drawPillars();
-
-        drawTerrainBelow();
-        drawTerrainAbove();
-
-        smoke.draw(batch);
-
-        batch.draw(plane.getKeyFrame(planeAnimTime), planePosition.x,
-                planePosition.y);
-
-        if (tapDrawTime > 0)
+        assets = thrustCopter.getAssets();
+        quality = thrustCopter.getQualityScaler();
+        profiler = thrustCopter.getProfiler();
+
+        // Игровая группа уже загружена экраном загрузки, захват её
+        // удерживает, а звуки ставит в очередь фоновой загрузки.
+        assets.acquire(AssetGroups.GAMEPLAY);
+        assets.acquire(AssetGroups.GAMEPLAY_AUDIO);
+
+        timestep = new FixedTimestep(thrustCopter.getTickRate(),
+                thrustCopter.getMaxStepsPerFrame());
+
+        renderer = new WorldRenderer(atlas,
+                manager.get("impact-40.fnt", BitmapFont.class));
+
+        // Остановленный след догорает ещё полсекунды, а рестарт после
+        // быстрой смерти занимает пару шагов: следов бывает до трёх.
+        effects.register(ParticleEffects.SMOKE,
+                manager.get(ParticleEffects.SMOKE, ParticleEffect.class), 3);
+        effects.register(ParticleEffects.EXPLOSION,
+                manager.get(ParticleEffects.EXPLOSION, ParticleEffect.class), 8);
+        renderer.setEffects(effects);
+        applyQuality(quality.getLevel());
+
+        PickupTypes pickupTypes = PickupTypes.createDefault();
+        pickupTypes.resolveTextures(atlas);
+
+        SpriteMetrics metrics = SpriteMetrics.fromAtlas(atlas);
+        metrics.bakeMasks(atlas, World.MASKED_REGIONS);
+        renderer.setTerrainSurface(metrics.getMask(World.TERRAIN_REGION));
+
+        if (thrustCopter.getReplayPath() != null)
         {
-            batch.draw(tapIndicator, touchPosition.x - 29.5f,
-                    touchPosition.y - 29.5f);
-            // 29.5 is half width / height of the image
-        }
+            Replay replay = readReplay(thrustCopter.getReplayPath());
 
-        if (gameState == GameState.INIT)
-        {
-            batch.draw(tap1, planePosition.x, planePosition.y - 80);
-        }
+            world = new World(metrics, pickupTypes, replay.getSettings(), replay.getSeed());
+            timestep.setTickRate(replay.getTickRate());
 
-        if (gameState == GameState.GAME_OVER)
-        {
-            batch.draw(gameOver, 400 - 206, 240 - 80);
+            replayPlayer = new ReplayPlayer(replay);
+            replayPlayer.start(world);
+            recordPath = null;
+            taps = null;
         }
-
-        font.draw(batch, "" + ((int) shieldCount), 390, 450);
-
-        if (meteorInScene)
+        else
         {
-            batch.draw(selectedMeteorTexture, meteorPosition.x,
-                    meteorPosition.y);
-        }
-
-        font.draw(batch, "" + (int) (starCount + score), 700, 450);
+            world = new World(metrics, pickupTypes);
+            replayPlayer = null;
+            recordPath = thrustCopter.getRecordPath();
+            taps = new TapQueue(camera);
 
-        for (Pickup pickup : pickupsInScene)
-        {
-            batch.draw(pickup.getPickupTexture(), pickup.getPickupPosition().x, pickup.getPickupPosition().y);
+            if (recordPath != null)
+            {
+                world.startRecording(timestep.getTickRate());
+            }
         }
 
-        batch.setColor(Color.BLACK);
-        batch.draw(fuelIndicator, 10, 350);
-        batch.setColor(Color.WHITE);
-        batch.draw(fuelIndicator, 10, 350, 0, 0, fuelPercentage, 119);
+        simulation = new Simulation(world, timestep, replayPlayer,
+                thrustCopter.isThreadedSimulation());
 
-        if (gameState == GameState.GAME_OVER)
+        // Профайлер не потокобезопасен: в отдельном потоке системы
+        // мира не меряются, а SIMULATION показывает передачу порции потоку.
+        if (!simulation.isThreaded())
         {
-            explosion.draw(batch);
+            world.setProfiler(profiler);
         }
-
-        batch.end();
     }
 
-    private void drawPillars()
+    @Override
+    public void show()
     {
-        for (Vector2 vec : pillars)
+        if (taps != null)
         {
-            if (vec.y == 1)
-            {
-                batch.draw(pillarUp, vec.x, 0);
-            }
-            else
-            {
-                batch.draw(pillarDown, vec.x,
-                        480 - pillarDown.getRegionHeight());
-            }
+            Gdx.input.setInputProcessor(taps);
         }
     }
 
-    private void resetScene()
+    @Override
+    public void render(float delta)
     {
-        terrainOffset = 0;
-        planeAnimTime = 0;
-
-        scrollVelocity.set(4, 0);
-        planeVelocity.set(400, 0);
-        gravity.set(0, -4);
-
-        starCount = 0;
-        score = 0;
-        shieldCount = 15;
-        fuelCount = 100;
-        fuelPercentage = 114;
-
-        planeDefaultPosition.set(300 - 88 / 2, 240 - 73 / 2);
-        planePosition.set(planeDefaultPosition.x, planeDefaultPosition.y);
+        long frameStart = TimeUtils.nanoTime();
 
-        pillars.clear();
-        addPillar();
-
-        meteorInScene = false;
-        nextMeteorIn = (float) Math.random() * 5;
-    }
-
-    private void updateScene(float deltaTime)
-    {
-        if (Gdx.input.justTouched())
-        {
-            tapSound.play();
-
-            if (gameState == GameState.INIT)
-            {
-                gameState = GameState.ACTION;
-                return;
-            }
-
-            if (gameState == GameState.GAME_OVER)
-            {
-
-                gameState = GameState.INIT;
-                resetScene();
-                return;
-            }
-
-            if (fuelCount > 0)
-            {
-                Vector2 tmpVector = new Vector2();
-
-                touchPosition.set(Gdx.input.getX(), Gdx.input.getY(), 0);
-                camera.unproject(touchPosition);
-
-                tmpVector.set(planePosition.x, planePosition.y);
-                tmpVector.sub(touchPosition.x, touchPosition.y).nor();
-
-                planeVelocity.mulAdd(tmpVector,
-                        TOUCH_IMPULSE - MathUtils.clamp(Vector2.dst(touchPosition.x,
-                                        touchPosition.y, planePosition.x, planePosition.y), 0,
-                                TOUCH_IMPULSE));
-
-                tapDrawTime = TAP_DRAW_TIME_MAX;
-            }
-        }
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-        if (gameState == GameState.INIT || gameState == GameState.GAME_OVER)
+        if (music == null && manager.isLoaded("sounds/journey.mp3"))
         {
-            if (gameState == GameState.GAME_OVER) explosion.update(deltaTime);
-            return;
+            music = manager.get("sounds/journey.mp3", Music.class);
+            music.setLooping(true);
+            music.play();
         }
 
-        smoke.setPosition(planePosition.x + 20, planePosition.y + 30);
-        smoke.update(deltaTime);
+        profiler.begin(FrameStat.INPUT);
 
-        if (gameState == GameState.INIT || gameState ==
-                GameState.GAME_OVER)
+        if (taps != null)
         {
-            return;
+            // Касания пришли до кадра; симуляция разложит их
+            // по шагам по времени событий.
+            simulation.tap(taps);
         }
 
-        planeAnimTime += deltaTime;
+        profiler.end(FrameStat.INPUT);
+        profiler.begin(FrameStat.SIMULATION);
 
-        planeVelocity.scl(DAMPING);
-        planeVelocity.add(gravity);
-        planeVelocity.add(scrollVelocity);
+        WorldSnapshot snapshot = simulation.update(delta);
 
-        planePosition.mulAdd(planeVelocity, deltaTime);
+        profiler.end(FrameStat.SIMULATION);
 
-        deltaPosition = planePosition.x - planeDefaultPosition.x;
-        terrainOffset -= deltaPosition;
+        snapshot.dispatchEvents(this);
 
-        planePosition.x = planeDefaultPosition.x;
+        drawScene(snapshot, delta);
 
-        if (terrainOffset * -1 > terrainBelow.getRegionWidth())
+        // delta включает ожидание vsync, а нагрузку показывает только
+        // работа кадра до batch.end(). Новый уровень — со следующего кадра.
+        if (quality.update(delta, (TimeUtils.nanoTime() - frameStart) / 1e9f))
         {
-            terrainOffset = 0;
+            applyQuality(quality.getLevel());
         }
+    }
 
-        if (terrainOffset > 0)
+    /**
+     * Меняет частоту шагов симуляции, например чтобы экономить CPU
+     * на слабых устройствах. Поведение игры от частоты не зависит.
+     * При записи и воспроизведении частота фиксирована записью
+     * и не меняется.
+     */
+    public void setTickRate(int tickRate)
+    {
+        if (replayPlayer == null && recordPath == null)
         {
-            terrainOffset = -terrainBelow.getRegionWidth();
+            timestep.setTickRate(tickRate);
         }
+    }
 
-        if (planePosition.y < terrainBelow.getRegionHeight() - 35 || planePosition.y + 73 > 480 -
-                terrainBelow.getRegionHeight() + 35)
-        {
-            endGame();
-        }
+    public int getTickRate()
+    {
+        return timestep.getTickRate();
+    }
 
-        pillarsLogic();
+    /**
+     * Уровень качества меняет только картинку, на симуляцию и
+     * записи он не влияет.
+     */
+    private void applyQuality(QualityLevel level)
+    {
+        effects.setParticleBudget(level.getParticleBudget());
+        effects.setEmissionScale(level.getEmissionScale());
+        renderer.setQuality(level);
 
-        for (Pickup pickup : pickupsInScene)
+        if (!level.hasTrails() && smoke != null)
         {
-            pickup.getPickupPosition().x -= deltaPosition;
-
-            if (pickup.getPickupPosition().x + pickup.getPickupTexture().getRegionWidth() < -10)
-            {
-                pickupsInScene.removeValue(pickup, false);
-            }
-
-            obstacleRect.set(pickup.getPickupPosition().x,
-                    pickup.getPickupPosition().y,
-                    pickup.getPickupTexture().getRegionWidth(),
-                    pickup.getPickupTexture().getRegionHeight());
-
-            if (planeRect.overlaps(obstacleRect))
-            {
-                pickIt(pickup);
-            }
+            effects.stopTrail(smoke);
+            smoke = null;
         }
+    }
 
-        meteorLogic(deltaTime);
+    /**
+     * @return мир. Если он шагается в отдельном потоке, трогать его
+     * можно только после {@link Simulation#finish()}.
+     */
+    public World getWorld()
+    {
+        return world;
+    }
 
-        tapDrawTime -= deltaTime;
+    public Simulation getSimulation()
+    {
+        return simulation;
+    }
 
-        checkAndCreatePickup(deltaTime);
-        fuelCount -= 6 * deltaTime;
-        fuelPercentage = (int) (114 * fuelCount / 100);
-        shieldCount -= deltaTime;
+    /**
+     * @return число отправок батча на GPU за последний кадр. Всё лежит
+     * в одном атласе, поэтому обычно их две: фон без смешивания и всё
+     * остальное. Аддитивный взрыв добавляет ещё одну.
+     */
+    public int getRenderCalls()
+    {
+        return renderCalls;
     }
 
-    private void meteorLogic(float deltaTime)
+    /**
+     * Сцена одноразовая: уходя с экрана, она отпускает свои группы
+     * ресурсов, и в следующий раз создаётся новая.
+     */
+    @Override
+    public void hide()
     {
-        if (meteorInScene)
+        if (taps != null && Gdx.input.getInputProcessor() == taps)
         {
-            meteorPosition.mulAdd(meteorVelocity, deltaTime);
-
-            meteorPosition.x -= deltaPosition;
-
-            if (meteorPosition.x < -10)
-            {
-                meteorInScene = false;
-            }
+            Gdx.input.setInputProcessor(null);
         }
 
-        nextMeteorIn -= deltaTime;
+        simulation.finish();
 
-        if (nextMeteorIn <= 0)
+        Replay replay = world.stopRecording();
+
+        if (replay != null)
         {
-            launchMeteor();
+            writeReplay(replay, recordPath);
         }
 
-        if (meteorInScene)
+        if (!assetsReleased)
         {
-            obstacleRect.set(meteorPosition.x + 2, meteorPosition.y + 2,
-                    selectedMeteorTexture.getRegionWidth() - 4,
-                    selectedMeteorTexture.getRegionHeight() - 4);
+            assetsReleased = true;
 
-            if (planeRect.overlaps(obstacleRect))
+            if (music != null)
             {
-                endGame();
+                music.stop();
+                music = null;
             }
+
+            assets.release(AssetGroups.GAMEPLAY_AUDIO);
+            assets.release(AssetGroups.GAMEPLAY);
         }
     }
 
-    private void launchMeteor()
+    private static Replay readReplay(String path)
     {
-        nextMeteorIn = 1.5f + (float) Math.random() * 5;
+        InputStream input = Gdx.files.local(path).read();
 
-        if (meteorInScene)
+        try
         {
-            return;
+            return Replay.read(input);
         }
-
-        spawnSound.play();
-
-        meteorInScene = true;
-
-        int id = (int) (Math.random() * meteorTextures.size);
-        selectedMeteorTexture = meteorTextures.get(id);
-
-        meteorPosition.x = 810;
-        meteorPosition.y = (float) (80 + Math.random() * 320);
-
-        Vector2 destination = new Vector2();
-        destination.x = -10;
-        destination.y = (float) (80 + Math.random() * 320);
-        destination.sub(meteorPosition).nor();
-
-        meteorVelocity.mulAdd(destination, METEOR_SPEED);
-    }
-
-    private void pillarsLogic()
-    {
-        planeRect.set(planePosition.x + 16, planePosition.y, 50, 73);
-
-        for (Vector2 vec : pillars)
+        catch (IOException e)
         {
-            vec.x -= deltaPosition;
-
-            if (vec.x + pillarUp.getRegionWidth() < -10)
-            {
-                pillars.removeValue(vec, false);
-            }
-
-            if (vec.y == 1)
-            {
-                obstacleRect.set(vec.x + 10, 0, pillarUp.getRegionWidth() - 20,
-                        pillarUp.getRegionHeight() - 10);
-            }
-            else
-            {
-                obstacleRect.set(vec.x + 10,
-                        480 - pillarDown.getRegionHeight() + 10,
-                        pillarUp.getRegionWidth() - 20, pillarUp.getRegionHeight());
-            }
-
-            if (planeRect.overlaps(obstacleRect))
-            {
-                endGame();
-            }
+            throw new GdxRuntimeException("Can't read replay " + path, e);
         }
-
-        if (lastPillarPosition.x < 400)
+        finally
         {
-            addPillar();
+            StreamUtils.closeQuietly(input);
         }
     }
 
-    private void addPillar()
+    private static void writeReplay(Replay replay, String path)
     {
-        Vector2 pillarPosition = new Vector2();
+        OutputStream output = Gdx.files.local(path).write(false);
 
-        if (pillars.size == 0)
+        try
         {
-            pillarPosition.x = (float) (800 + Math.random() * 600);
+            replay.write(output);
         }
-        else
-        {
-            pillarPosition.x = lastPillarPosition.x + (float) (600 +
-                    Math.random() * 600);
-        }
-
-        if (MathUtils.randomBoolean())
+        catch (IOException e)
         {
-            pillarPosition.y = 1;
+            throw new GdxRuntimeException("Can't write replay " + path, e);
         }
-        else
+        finally
         {
-            pillarPosition.y = -1; //upside down
+            StreamUtils.closeQuietly(output);
         }
-
-        lastPillarPosition = pillarPosition;
-
-        pillars.add(pillarPosition);
-    }
-
-    private void drawTerrainAbove()
-    {
-        batch.draw(terrainAbove, terrainOffset, 480 - terrainAbove.
-                getRegionHeight());
-        batch.draw(terrainAbove, terrainOffset + terrainAbove.
-                getRegionWidth(), 480 - terrainAbove.getRegionHeight());
     }
 
-    private void drawTerrainBelow()
+    @Override
+    public void tapped()
     {
-        batch.draw(terrainBelow, terrainOffset, 0);
-        batch.draw(terrainBelow, terrainOffset + terrainBelow.
-                getRegionWidth(), 0);
+        playSound("sounds/pop.ogg");
     }
 
-    private void createTextRegions(TextureAtlas atlas, AssetManager manager)
+    @Override
+    public void crashed(float x, float y)
     {
-        fuelIndicator = manager.get("life.png", Texture.class);
-        gameOver = new TextureRegion(manager.get("gameover.png", Texture.class));
+        playSound("sounds/crash.ogg");
+        effects.spawn(ParticleEffects.EXPLOSION, x, y);
 
-        background = atlas.findRegion("background");
-        tapIndicator = atlas.findRegion("tap2");
-        tap1 = atlas.findRegion("tap1");
-
-        terrainBelow = atlas.findRegion("groundGrass");
-        terrainAbove = new TextureRegion(terrainBelow);
-
-        pillarUp = atlas.findRegion("rockGrassUp");
-        pillarDown = atlas.findRegion("rockGrassDown");
-
-        initMeteorTextures(atlas);
-    }
-
-    private void initMeteorTextures(TextureAtlas atlas)
-    {
-        meteorTextures.add(atlas.findRegion("meteorBrown_med1"));
-        meteorTextures.add(atlas.findRegion("meteorBrown_med2"));
-        meteorTextures.add(atlas.findRegion("meteorBrown_small1"));
-        meteorTextures.add(atlas.findRegion("meteorBrown_small2"));
-        meteorTextures.add(atlas.findRegion("meteorBrown_tiny1"));
-        meteorTextures.add(atlas.findRegion("meteorBrown_tiny2"));
+        if (smoke != null)
+        {
+            effects.stopTrail(smoke);
+            smoke = null;
+        }
     }
 
-    private void drawBackground()
+    @Override
+    public void meteorLaunched()
     {
-        // Выключаем смешивание так как рисуем
-        // background-текстуру, которая не накладывается
-        // на другие.
-        batch.disableBlending();
-
-        batch.draw(background, 0, 0);
-
-        batch.enableBlending();
+        playSound("sounds/alarm.ogg");
     }
 
-    private void checkAndCreatePickup(float delta)
+    @Override
+    public void pickedUp(PickupType type)
     {
-        pickupTiming.sub(delta);
-
-        if (pickupTiming.x <= 0)
-        {
-            pickupTiming.x = (float) (0.5 + Math.random() * 0.5);
-            if (addPickup(Pickup.STAR))
-                pickupTiming.x = 1 + (float) Math.random() * 2;
-        }
-        if (pickupTiming.y <= 0)
-        {
-            pickupTiming.y = (float) (0.5 + Math.random() * 0.5);
-            if (addPickup(Pickup.FUEL))
-                pickupTiming.y = 3 + (float) Math.random() * 2;
-        }
-        if (pickupTiming.z <= 0)
-        {
-            pickupTiming.z = (float) (0.5 + Math.random() * 0.5);
-            if (addPickup(Pickup.SHIELD))
-                pickupTiming.z = 10 + (float) Math.random() * 3;
-        }
+        playSound(type.getSoundName());
     }
 
-    private void endGame()
+    /**
+     * Звуки, кроме касания, догружаются во время игры:
+     * пока звук не загружен, событие проходит без звука.
+     */
+    private void playSound(String fileName)
     {
-        if (gameState != GameState.GAME_OVER)
+        if (manager.isLoaded(fileName))
         {
-            crashSound.play();
-            gameState = GameState.GAME_OVER;
-            explosion.reset();
-            explosion.setPosition(planePosition.x + 40, planePosition.y + 40);
+            manager.get(fileName, Sound.class).play();
         }
     }
 
-    private boolean addPickup(int pickupType)
+    /**
+     * @param snapshot состояние мира для этого кадра.
+     * @param delta    реальное время кадра для эффектов частиц.
+     */
+    private void drawScene(WorldSnapshot snapshot, float delta)
     {
-        Vector2 randomPosition = new Vector2();
-        randomPosition.x = 820;
-        randomPosition.y = (float) (80 + Math.random() * 320);
-
-        for (Vector2 vec : pillars)
+        if (snapshot.getGameState() == GameState.ACTION && quality.getLevel().hasTrails())
         {
-            if (vec.y == 1)
-            {
-                obstacleRect.set(vec.x, 0, pillarUp.getRegionWidth(), pillarUp.getRegionHeight());
-            }
-            else
+            if (smoke == null)
             {
-                obstacleRect.set(vec.x, 480 - pillarDown.getRegionHeight(), pillarUp.getRegionWidth(), pillarUp.getRegionHeight());
+                smoke = effects.startTrail(ParticleEffects.SMOKE);
             }
 
-            if (obstacleRect.contains(randomPosition))
-            {
-                return false;
-            }
+            smoke.setPosition(snapshot.getPlaneX() + 20, snapshot.getPlaneY() + 30);
         }
 
-        tempPickup = new Pickup(pickupType, manager);
-        tempPickup.getPickupPosition().set(randomPosition);
-        pickupsInScene.add(tempPickup);
+        profiler.begin(FrameStat.EFFECTS);
+        effects.update(delta);
+        profiler.end(FrameStat.EFFECTS);
 
-        return true;
-    }
+        camera.update();
 
-    private void pickIt(Pickup pickup)
-    {
-        pickup.getPickupSound().play();
+        batch.setProjectionMatrix(camera.combined);
 
-        switch (pickup.getPickupType())
-        {
-            case Pickup.STAR:
-                starCount += pickup.getPickupValue();
-                break;
+        profiler.begin(FrameStat.DRAW);
+        batch.begin();
 
-            case Pickup.SHIELD:
-                shieldCount = pickup.getPickupValue();
-                break;
+        renderer.draw(batch, snapshot);
 
-            case Pickup.FUEL:
-                fuelCount = pickup.getPickupValue();
-                break;
-        }
+        profiler.end(FrameStat.DRAW);
+
+        // Отправка последней порции вершин на GPU
+        profiler.begin(FrameStat.FLUSH);
+        batch.end();
+        profiler.end(FrameStat.FLUSH);
 
-        pickupsInScene.removeValue(pickup, false);
+        renderCalls = batch.renderCalls;
     }
 
+    /**
+     * Зовётся {@link ThrustCopter} после {@link #hide()}: останавливает
+     * поток симуляции. Звуки, музыка и эффекты принадлежат группам
+     * ресурсов и выгружаются при их освобождении в {@link #hide()}.
+     */
     @Override
     public void dispose()
     {
-        tapSound.dispose();
-        crashSound.dispose();
-        spawnSound.dispose();
-        music.dispose();
-        pillars.clear();
-        meteorTextures.clear();
-        smoke.dispose();
-        explosion.dispose();
+        effects.clear();
+        simulation.dispose();
+        world.dispose();
+        renderer.dispose();
     }
 
 }
@@ -0,0 +1,730 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Random;
+
+/**
+ * Игровая логика без графики, звука и {@code Gdx.*}. Сцена только
+ * передаёт сюда касания, вызывает {@link #step(float)} и рисует
+ * состояние, а звуки и эффекты запускает по событиям {@link Listener}.
+ * Поэтому мир можно прогонять без GPU — на сервере или в тестах.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class World
+{
+    /**
+     * События мира, на которые сцена отвечает звуком и эффектами.
+     */
+    public interface Listener
+    {
+        void tapped();
+
+        void crashed(float x, float y);
+
+        void meteorLaunched();
+
+        void pickedUp(PickupType type);
+    }
+
+    public static final Listener NO_LISTENER = new Listener()
+    {
+        @Override
+        public void tapped()
+        {
+        }
+
+        @Override
+        public void crashed(float x, float y)
+        {
+        }
+
+        @Override
+        public void meteorLaunched()
+        {
+        }
+
+        @Override
+        public void pickedUp(PickupType type)
+        {
+        }
+    };
+
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 480;
+
+    public static final String PLANE_REGION = "planeRed1";
+    public static final String TERRAIN_REGION = "groundGrass";
+    public static final String PILLAR_REGION = "rockGrassUp";
+    public static final String PILLAR_DOWN_REGION = "rockGrassDown";
+    public static final String[] METEOR_REGIONS = {
+            "meteorBrown_med1",
+            "meteorBrown_med2",
+            "meteorBrown_small1",
+            "meteorBrown_small2",
+            "meteorBrown_tiny1",
+            "meteorBrown_tiny2"
+    };
+
+    // Спрайты, для которых запекаются маски пикселей. Бонусы сюда
+    // не входят и задевают самолёт всем квадратом: подбирать их проще.
+    // Маска земли нужна не столкновениям, а отрисовке: по ней полоса
+    // земли берёт из текстуры только непрозрачную часть столбцов.
+    public static final String[] MASKED_REGIONS = {
+            PLANE_REGION,
+            TERRAIN_REGION,
+            PILLAR_REGION,
+            PILLAR_DOWN_REGION,
+            "meteorBrown_med1",
+            "meteorBrown_med2",
+            "meteorBrown_small1",
+            "meteorBrown_small2",
+            "meteorBrown_tiny1",
+            "meteorBrown_tiny2"
+    };
+
+    public static final float TAP_DRAW_TIME_MAX = 1.0f;
+    public static final int FUEL_INDICATOR_WIDTH = 114;
+
+    // Затухание и ускорения подобраны под шаг 1/60 секунды,
+    // при другом шаге они пересчитываются в updateStepCoefficients.
+    private static final float DAMPING = 0.99f;
+    private static final int REFERENCE_TICK_RATE = 60;
+    private static final int TOUCH_IMPULSE = 500;
+
+    // Ячейка широкой фазы чуть шире самого широкого спрайта,
+    // а корзин хватает на несколько экранов без совпадений.
+    private static final float BROADPHASE_CELL_SIZE = 128;
+    private static final int BROADPHASE_BUCKETS = 64;
+
+    // Бонусов на экране одновременно бывает несколько штук
+    private static final int PICKUP_CAPACITY = 16;
+
+    private final int planeWidth;
+    private final int planeHeight;
+    private final CollisionMask planeMask;
+
+    private final WorldSettings settings;
+
+    // Свой генератор у каждого мира: одинаковые зерно и касания
+    // дают побитово одинаковую игру, а параллельные миры не делят
+    // общий синхронизированный Random.
+    private final RandomXS128 random = new RandomXS128();
+    private long seed;
+
+    // Номер шага с последнего reset(long) и запись касаний
+    private int tick;
+    private Replay recording;
+
+    private Listener listener = NO_LISTENER;
+    private FrameProfiler profiler = FrameProfiler.DISABLED;
+
+    private GameState gameState = GameState.INIT;
+    private DeathCause deathCause = DeathCause.NONE;
+    private float flightTime;
+
+    private float planeAnimTime;
+    private float tapDrawTime;
+    private float deltaPosition;
+
+    // Пройденный путь: экранный x плюс он даёт координату прокрутки,
+    // в которой неподвижные относительно мира объекты стоят на месте.
+    private float scrollDistance;
+
+    private boolean tapPending;
+
+    private float coefficientsStep;
+    private float stepDamping;
+    private float stepImpulse;
+
+    // Скорость
+    private Vector2 planeVelocity = new Vector2();
+    private Vector2 scrollVelocity = new Vector2();
+    private Vector2 planePosition = new Vector2();
+    private Vector2 planeDefaultPosition = new Vector2();
+    private Vector2 gravity = new Vector2();
+    private Vector2 touchPosition = new Vector2();
+    private Vector2 tmpVector = new Vector2();
+
+    // Состояние предыдущего шага для интерполяции при отрисовке
+    private float previousPlaneY;
+
+    // Прямоугольник столкновений самолёта на текущем шаге
+    private Rectangle planeRect = new Rectangle();
+
+    // Столбы, метеоры и бонусы — сущности с компонентами. Системы
+    // шагаются в порядке добавления: земля, общие системы по семействам
+    // сущностей, затем появление новых сущностей каждого вида.
+    // Столкновения с сущностями проверяются через широкие фазы
+    // в координатах прокрутки, с землёй — поиском отсчёта по тому же x.
+    private final Entities entities;
+    private final Family sprites;
+    private final Array<WorldSystem> systems = new Array<WorldSystem>();
+    private final TerrainSystem terrainSystem;
+    private final CollisionSystem collisionSystem;
+    private final PillarSystem pillarSystem;
+    private final MeteorSystem meteorSystem;
+    private final PickupSystem pickupSystem;
+
+    private int starCount;
+    private float fuelCount;
+    private float shieldCount;
+    private float score;
+    private int fuelPercentage;
+
+    public World(SpriteMetrics metrics, PickupTypes pickupTypes)
+    {
+        this(metrics, pickupTypes, new WorldSettings(), MathUtils.random.nextLong());
+    }
+
+    public World(SpriteMetrics metrics, PickupTypes pickupTypes, WorldSettings settings, long seed)
+    {
+        this.settings = settings;
+
+        planeWidth = metrics.getWidth(PLANE_REGION);
+        planeHeight = metrics.getHeight(PLANE_REGION);
+        planeMask = metrics.getMask(PLANE_REGION);
+
+        entities = new Entities(settings.getPillarCapacity() + settings.getMaxMeteors() + PICKUP_CAPACITY);
+        sprites = entities.getFamily(Component.POSITION, Component.SPRITE);
+
+        // Порядок систем задаёт порядок обращений к генератору.
+        terrainSystem = new TerrainSystem(this, metrics);
+        collisionSystem = new CollisionSystem(this);
+        pillarSystem = new PillarSystem(this, metrics);
+        meteorSystem = new MeteorSystem(this, metrics);
+        pickupSystem = new PickupSystem(this, pickupTypes, metrics, collisionSystem);
+
+        systems.add(terrainSystem);
+        systems.add(new MovementSystem(this));
+        systems.add(new ScrollSystem(this));
+        systems.add(new LifetimeSystem(this));
+        systems.add(collisionSystem);
+        systems.add(pillarSystem);
+        systems.add(meteorSystem);
+        systems.add(pickupSystem);
+
+        reset(seed);
+    }
+
+    /**
+     * Добавляет систему после встроенных. Она сразу получает
+     * {@link WorldSystem#reset()}, дальше шагается вместе с остальными.
+     */
+    public void addSystem(WorldSystem system)
+    {
+        if (system.world != this)
+        {
+            throw new IllegalArgumentException("System belongs to another world");
+        }
+
+        systems.add(system);
+        system.reset();
+    }
+
+    public void setListener(Listener listener)
+    {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    /**
+     * @param profiler куда записывать время каждой системы.
+     */
+    public void setProfiler(FrameProfiler profiler)
+    {
+        this.profiler = profiler == null ? FrameProfiler.DISABLED : profiler;
+    }
+
+    /**
+     * Касание в мировых координатах. Обрабатывается ближайшим шагом.
+     */
+    public void tap(float x, float y)
+    {
+        if (recording != null)
+        {
+            recording.addTap(tick, x, y);
+        }
+
+        tapPending = true;
+        touchPosition.set(x, y);
+    }
+
+    /**
+     * Начинает игру заново с тем же генератором, продолжая его последовательность.
+     */
+    public void reset()
+    {
+        gameState = GameState.INIT;
+        deathCause = DeathCause.NONE;
+        flightTime = 0;
+
+        planeAnimTime = 0;
+
+        // Начальная скорость равна установившейся: scroll / (1 - DAMPING)
+        scrollVelocity.set(settings.getScrollAcceleration(), 0);
+        planeVelocity.set(settings.getScrollAcceleration() / (1 - DAMPING), 0);
+        gravity.set(0, -settings.getGravity());
+
+        starCount = 0;
+        score = 0;
+        shieldCount = 15;
+        fuelCount = 100;
+        fuelPercentage = FUEL_INDICATOR_WIDTH;
+
+        planeDefaultPosition.set(300 - planeWidth / 2, HEIGHT / 2 - planeHeight / 2);
+        planePosition.set(planeDefaultPosition.x, planeDefaultPosition.y);
+        previousPlaneY = planePosition.y;
+        deltaPosition = 0;
+        scrollDistance = 0;
+        tapPending = false;
+
+        // Всё состояние, влияющее на ход игры, сбрасываем явно,
+        // иначе повтор с тем же зерном разойдётся с оригиналом.
+        tapDrawTime = 0;
+
+        entities.clear();
+
+        for (int i = 0; i < systems.size; i++)
+        {
+            systems.get(i).reset();
+        }
+    }
+
+    /**
+     * Начинает игру заново с генератором, заведённым от {@code seed}.
+     */
+    public void reset(long seed)
+    {
+        this.seed = seed;
+        random.setSeed(seed);
+        tick = 0;
+
+        reset();
+    }
+
+    /**
+     * Один шаг симуляции длиной {@code deltaTime} секунд.
+     */
+    public void step(float deltaTime)
+    {
+        tick++;
+
+        previousPlaneY = planePosition.y;
+
+        for (int i = 0; i < systems.size; i++)
+        {
+            systems.get(i).beginStep();
+        }
+
+        deltaPosition = 0;
+
+        if (tapPending)
+        {
+            tapPending = false;
+            listener.tapped();
+
+            if (gameState == GameState.INIT)
+            {
+                gameState = GameState.ACTION;
+                return;
+            }
+
+            if (gameState == GameState.GAME_OVER)
+            {
+                reset();
+                return;
+            }
+
+            if (fuelCount > 0)
+            {
+                tmpVector.set(planePosition.x, planePosition.y);
+                tmpVector.sub(touchPosition.x, touchPosition.y).nor();
+
+                planeVelocity.mulAdd(tmpVector,
+                        TOUCH_IMPULSE - MathUtils.clamp(Vector2.dst(touchPosition.x,
+                                        touchPosition.y, planePosition.x, planePosition.y), 0,
+                                TOUCH_IMPULSE));
+
+                tapDrawTime = TAP_DRAW_TIME_MAX;
+            }
+        }
+
+        if (gameState == GameState.INIT || gameState == GameState.GAME_OVER)
+        {
+            return;
+        }
+
+        planeAnimTime += deltaTime;
+        flightTime += deltaTime;
+
+        updateStepCoefficients(deltaTime);
+
+        planeVelocity.scl(stepDamping);
+        planeVelocity.mulAdd(gravity, stepImpulse);
+        planeVelocity.mulAdd(scrollVelocity, stepImpulse);
+
+        planePosition.mulAdd(planeVelocity, deltaTime);
+
+        deltaPosition = planePosition.x - planeDefaultPosition.x;
+        scrollDistance += deltaPosition;
+
+        planePosition.x = planeDefaultPosition.x;
+
+        planeRect.set(planePosition.x, planePosition.y, planeWidth, planeHeight);
+
+        for (int i = 0; i < systems.size; i++)
+        {
+            WorldSystem system = systems.get(i);
+
+            profiler.begin(system.getStat());
+            system.update(deltaTime);
+            profiler.end(system.getStat());
+        }
+
+        tapDrawTime -= deltaTime;
+
+        for (int i = 0; i < systems.size; i++)
+        {
+            WorldSystem system = systems.get(i);
+
+            profiler.begin(system.getStat());
+            system.lateUpdate(deltaTime);
+            profiler.end(system.getStat());
+        }
+
+        fuelCount -= 6 * deltaTime;
+        fuelPercentage = (int) (FUEL_INDICATOR_WIDTH * fuelCount / 100);
+        shieldCount -= deltaTime;
+    }
+
+    /**
+     * Пересчитывает затухание и приращения скорости, заданные на шаг
+     * 1/60 секунды, для шага {@code deltaTime}: применение их за шаг
+     * {@code k / 60} эквивалентно {@code k} шагам по 1/60.
+     */
+    private void updateStepCoefficients(float deltaTime)
+    {
+        if (deltaTime == coefficientsStep)
+        {
+            return;
+        }
+
+        coefficientsStep = deltaTime;
+        stepDamping = (float) StrictMath.pow(DAMPING, deltaTime * REFERENCE_TICK_RATE);
+        stepImpulse = (1 - stepDamping) / (1 - DAMPING);
+    }
+
+    /**
+     * Самолёт разбился. Повторные вызовы до перезапуска ничего не делают.
+     */
+    void endGame(DeathCause cause)
+    {
+        if (gameState != GameState.GAME_OVER)
+        {
+            gameState = GameState.GAME_OVER;
+            deathCause = cause;
+            listener.crashed(planePosition.x + 40, planePosition.y + 40);
+        }
+    }
+
+    /**
+     * Самолёт подобрал бонус вида {@code type}.
+     */
+    void pickUp(PickupType type)
+    {
+        listener.pickedUp(type);
+
+        switch (type.getEffect())
+        {
+            case STARS:
+                starCount += type.getValue();
+                break;
+
+            case SHIELD:
+                shieldCount = type.getValue();
+                break;
+
+            case FUEL:
+                fuelCount = type.getValue();
+                break;
+        }
+    }
+
+    /**
+     * Начинает игру заново с текущим зерном и записывает все касания.
+     *
+     * @param tickRate частота шагов, с которой будет шагаться мир.
+     */
+    public Replay startRecording(int tickRate)
+    {
+        reset(seed);
+        recording = new Replay(seed, tickRate, settings);
+
+        return recording;
+    }
+
+    /**
+     * @return законченная запись или {@code null}, если запись не велась.
+     */
+    public Replay stopRecording()
+    {
+        Replay replay = recording;
+        recording = null;
+
+        if (replay != null)
+        {
+            replay.finish(tick, stateHash());
+        }
+
+        return replay;
+    }
+
+    /**
+     * Хэш состояния, влияющего на ход игры. Совпадение хэшей после
+     * повтора означает, что повтор не разошёлся с оригиналом.
+     */
+    public int stateHash()
+    {
+        int hash = tick;
+        hash = 31 * hash + gameState.ordinal();
+        hash = 31 * hash + Float.floatToIntBits(planePosition.y);
+        hash = 31 * hash + Float.floatToIntBits(planeVelocity.x);
+        hash = 31 * hash + Float.floatToIntBits(planeVelocity.y);
+        hash = 31 * hash + Float.floatToIntBits(scrollDistance);
+        hash = 31 * hash + Float.floatToIntBits(fuelCount);
+        hash = 31 * hash + Float.floatToIntBits(shieldCount);
+        hash = 31 * hash + starCount;
+        hash = 31 * hash + pillarSystem.getPillars().size();
+        hash = 31 * hash + pickupSystem.getPickups().size();
+        hash = 31 * hash + meteorSystem.getMeteors().size();
+
+        long state = random.getState(0) ^ random.getState(1);
+        hash = 31 * hash + (int) (state ^ (state >>> 32));
+
+        return hash;
+    }
+
+    public void dispose()
+    {
+        for (int i = 0; i < systems.size; i++)
+        {
+            systems.get(i).dispose();
+        }
+
+        entities.clear();
+    }
+
+    /**
+     * Широкая фаза с общими для мира размерами ячеек для системы.
+     */
+    SpatialHash createBroadphase()
+    {
+        return new SpatialHash(BROADPHASE_CELL_SIZE, BROADPHASE_BUCKETS);
+    }
+
+    /**
+     * Собирает в {@code result} всех из {@code hash}, кто может
+     * задеть самолёт на этом шаге.
+     */
+    void queryPlane(SpatialHash hash, IntArray result)
+    {
+        hash.query(planeRect.x + scrollDistance,
+                planeRect.x + planeRect.width + scrollDistance, result);
+    }
+
+    /**
+     * Узкая фаза: задевает ли самолёт пикселями спрайт с маской
+     * {@code mask} в экранных координатах {@code (x, y)}. Звать после
+     * пересечения прямоугольников.
+     */
+    boolean hitsPlane(CollisionMask mask, float x, float y)
+    {
+        return planeMask.overlaps(planePosition.x, planePosition.y, mask, x, y);
+    }
+
+    /**
+     * @return прямоугольник спрайта самолёта на текущем шаге.
+     */
+    Rectangle getPlaneRect()
+    {
+        return planeRect;
+    }
+
+    /**
+     * @return пройденный путь: экранный x плюс он даёт координату прокрутки.
+     */
+    float getScrollDistance()
+    {
+        return scrollDistance;
+    }
+
+    /**
+     * @return генератор мира, общий для всех систем.
+     */
+    Random getRandom()
+    {
+        return random;
+    }
+
+    Listener getListener()
+    {
+        return listener;
+    }
+
+    public GameState getGameState()
+    {
+        return gameState;
+    }
+
+    public DeathCause getDeathCause()
+    {
+        return deathCause;
+    }
+
+    /**
+     * @return сколько секунд длится текущий полёт.
+     */
+    public float getFlightTime()
+    {
+        return flightTime;
+    }
+
+    /**
+     * @return сколько шагов сделано с последнего {@link #reset(long)}.
+     */
+    public int getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * @return зерно, от которого заведён генератор при последнем {@link #reset(long)}.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public WorldSettings getSettings()
+    {
+        return settings;
+    }
+
+    public Entities getEntities()
+    {
+        return entities;
+    }
+
+    /**
+     * @return всё, что рисуется регионом атласа.
+     */
+    public Family getSprites()
+    {
+        return sprites;
+    }
+
+    public Family getPillars()
+    {
+        return pillarSystem.getPillars();
+    }
+
+    public Family getPickups()
+    {
+        return pickupSystem.getPickups();
+    }
+
+    public Family getMeteors()
+    {
+        return meteorSystem.getMeteors();
+    }
+
+    public TerrainSystem getTerrainSystem()
+    {
+        return terrainSystem;
+    }
+
+    public CollisionSystem getCollisionSystem()
+    {
+        return collisionSystem;
+    }
+
+    public PillarSystem getPillarSystem()
+    {
+        return pillarSystem;
+    }
+
+    public PickupSystem getPickupSystem()
+    {
+        return pickupSystem;
+    }
+
+    public MeteorSystem getMeteorSystem()
+    {
+        return meteorSystem;
+    }
+
+    /**
+     * @return на сколько мир сдвинулся влево за последний шаг.
+     */
+    public float getDeltaPosition()
+    {
+        return deltaPosition;
+    }
+
+    public float getPlaneAnimTime()
+    {
+        return planeAnimTime;
+    }
+
+    public float getTapDrawTime()
+    {
+        return tapDrawTime;
+    }
+
+    public Vector2 getTouchPosition()
+    {
+        return touchPosition;
+    }
+
+    public Vector2 getPlanePosition()
+    {
+        return planePosition;
+    }
+
+    public Vector2 getPlaneVelocity()
+    {
+        return planeVelocity;
+    }
+
+    public float getPreviousPlaneY()
+    {
+        return previousPlaneY;
+    }
+
+    public int getShieldCount()
+    {
+        return (int) shieldCount;
+    }
+
+    public int getScore()
+    {
+        return (int) (starCount + score);
+    }
+
+    public float getFuelCount()
+    {
+        return fuelCount;
+    }
+
+    public int getFuelPercentage()
+    {
+        return fuelPercentage;
+    }
+}
@@ -0,0 +1,329 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Отрисовка состояния {@link World} в {@link Batch}. Рисует не сам
+ * мир, а его {@link WorldSnapshot}, поэтому мир можно шагать в другом
+ * потоке. Работает только с регионами и шрифтом, поэтому её можно
+ * гонять и с пустым Batch без GPU. В установившемся режиме ничего не выделяет: HUD
+ * пересобирается только при изменении, списки обходятся по индексу.
+ * Все регионы и страница шрифта лежат в одном атласе, поэтому батч
+ * сбрасывается только при смене смешивания.
+ * <p>
+ * Сущности мира рисуются одним циклом по спрайтам снимка: регион
+ * берётся по номеру из массива, собранного из атласа на первом
+ * кадре мира, поэтому новому виду сущностей не нужен свой цикл
+ * отрисовки.
+ * <p>
+ * Земля и потолок — полосы из четырёхугольников между соседними
+ * отсчётами высот, каждая собирается в один массив вершин и уходит
+ * в батч одним вызовом, какой бы длины ни была.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class WorldRenderer
+{
+    private static final float WHITE = Color.WHITE.toFloatBits();
+    private static final int TERRAIN_SEGMENTS = World.WIDTH / TerrainSystem.SPACING + 16;
+
+    private TextureAtlas.AtlasRegion background;
+
+    private TextureRegion terrain;
+
+    // v верхнего края непрозрачной части каждого столбца текстуры
+    // земли; последний элемент повторяет первый столбец.
+    private final float[] terrainSurfaceV;
+
+    // Запас на экран и сдвиг прокрутки за шаг
+    private float[] floorVertices = new float[TERRAIN_SEGMENTS * HudLayer.SPRITE_SIZE];
+    private float[] ceilingVertices = new float[TERRAIN_SEGMENTS * HudLayer.SPRITE_SIZE];
+
+    private TextureRegion tapIndicator;
+    private TextureRegion tap1;
+    private TextureRegion gameOver;
+
+    private final TextureAtlas atlas;
+
+    // Регионы спрайтов по номерам из списка имён resolvedNames
+    private TextureRegion[] regions = new TextureRegion[0];
+    private Array<String> resolvedNames;
+
+    private Animation plane;
+
+    private final HudLayer hud;
+
+    private ParticleEffects effects;
+
+    /**
+     * @param font шрифт, страница которого лежит в том же атласе.
+     */
+    public WorldRenderer(TextureAtlas atlas, BitmapFont font)
+    {
+        this.atlas = atlas;
+
+        hud = new HudLayer(atlas.findRegion("life"), font);
+        gameOver = atlas.findRegion("gameover");
+
+        background = atlas.findRegion("background");
+        tapIndicator = atlas.findRegion("tap2");
+        tap1 = atlas.findRegion("tap1");
+
+        terrain = atlas.findRegion(World.TERRAIN_REGION);
+        terrainSurfaceV = new float[terrain.getRegionWidth() + 1];
+
+        for (int x = 0; x < terrainSurfaceV.length; x++)
+        {
+            terrainSurfaceV[x] = terrain.getV();
+        }
+
+        plane = new Animation(0.01f,
+                new TextureRegion(atlas.findRegion("planeRed1")),
+                new TextureRegion(atlas.findRegion("planeRed2")),
+                new TextureRegion(atlas.findRegion("planeRed3")),
+                new TextureRegion(atlas.findRegion("planeRed2")));
+        plane.setPlayMode(Animation.PlayMode.LOOP);
+    }
+
+    /**
+     * Эффекты частиц рисуются в нужном месте кадра, но обновляет
+     * их владелец. Может быть {@code null}.
+     */
+    public void setEffects(ParticleEffects effects)
+    {
+        this.effects = effects;
+    }
+
+    /**
+     * Профиль поверхности текстуры земли по маске её региона. Полоса
+     * растягивает на высоту отсчёта только непрозрачную часть столбца
+     * текстуры, поэтому трава идёт по верхнему краю полосы. Без
+     * профиля столбцы берутся целиком, с прозрачным верхом.
+     */
+    public void setTerrainSurface(CollisionMask mask)
+    {
+        int width = terrain.getRegionWidth();
+        int height = terrain.getRegionHeight();
+
+        if (mask.getWidth() != width || mask.getHeight() != height)
+        {
+            throw new IllegalArgumentException("Mask size doesn't match terrain: "
+                    + mask.getWidth() + "x" + mask.getHeight());
+        }
+
+        // Верх региона в текстуре - v, низ - v2.
+        float texel = (terrain.getV2() - terrain.getV()) / height;
+
+        for (int x = 0; x < terrainSurfaceV.length; x++)
+        {
+            terrainSurfaceV[x] = terrain.getV2() - (mask.getColumnTop(x % width) + 1) * texel;
+        }
+    }
+
+    /**
+     * Подстраивает частоту кадров анимации самолёта и HUD под уровень качества.
+     */
+    public void setQuality(QualityLevel level)
+    {
+        plane.setFrameDuration(level.getPlaneFrameDuration());
+        hud.setRefreshFrames(level.getHudRefreshFrames());
+    }
+
+    /**
+     * Рисует кадр. Вызывается между {@code batch.begin()} и {@code batch.end()}.
+     * Интерполирует положения на долю шага, с которой снят снимок.
+     */
+    public void draw(Batch batch, WorldSnapshot world)
+    {
+        GameState gameState = world.getGameState();
+
+        // Всё, что прокручивается вместе с миром, отрисовываем
+        // с отставанием на недоигранную часть последнего сдвига.
+        float scrollLag = world.getScrollLag();
+        float planeX = world.getPlaneX();
+        float planeY = world.getPlaneY();
+
+        drawBackground(batch);
+
+        drawSprites(batch, world, Entities.BACK_LAYER);
+
+        drawTerrain(batch, world, scrollLag);
+
+        if (effects != null)
+        {
+            effects.drawTrails(batch);
+        }
+
+        batch.draw(plane.getKeyFrame(world.getPlaneAnimTime()), planeX, planeY);
+
+        if (world.getTapDrawTime() > 0)
+        {
+            batch.draw(tapIndicator, world.getTouchX() - 29.5f,
+                    world.getTouchY() - 29.5f);
+            // 29.5 is half width / height of the image
+        }
+
+        if (gameState == GameState.INIT)
+        {
+            batch.draw(tap1, planeX, planeY - 80);
+        }
+
+        if (gameState == GameState.GAME_OVER)
+        {
+            batch.draw(gameOver, 400 - 206, 240 - 80);
+        }
+
+        drawSprites(batch, world, Entities.FRONT_LAYER);
+
+        hud.update(world.getFuelPercentage(), world.getShieldCount(), world.getScore());
+        hud.draw(batch);
+
+        if (effects != null)
+        {
+            effects.drawBursts(batch);
+        }
+    }
+
+    /**
+     * Рисует спрайты сущностей слоя {@code layer}.
+     */
+    private void drawSprites(Batch batch, WorldSnapshot world, byte layer)
+    {
+        resolveRegions(world.getRegionNames());
+
+        for (int i = 0; i < world.getSpriteCount(); i++)
+        {
+            if (world.getSpriteLayer(i) != layer)
+            {
+                continue;
+            }
+
+            batch.draw(regions[world.getSpriteRegion(i)], world.getSpriteX(i), world.getSpriteY(i));
+        }
+    }
+
+    /**
+     * Находит в атласе регионы спрайтов мира по их номерам. Список
+     * имён у мира один на всю жизнь, поэтому поиск идёт только
+     * на первом кадре мира.
+     */
+    private void resolveRegions(Array<String> names)
+    {
+        if (names == null || (names == resolvedNames && names.size == regions.length))
+        {
+            return;
+        }
+
+        regions = new TextureRegion[names.size];
+
+        for (int i = 0; i < names.size; i++)
+        {
+            regions[i] = atlas.findRegion(names.get(i));
+
+            if (regions[i] == null)
+            {
+                throw new IllegalStateException("Region not found: " + names.get(i));
+            }
+        }
+
+        resolvedNames = names;
+    }
+
+    private void drawTerrain(Batch batch, WorldSnapshot world, float scrollLag)
+    {
+        int size = (world.getTerrainSampleCount() - 1) * HudLayer.SPRITE_SIZE;
+
+        if (size > floorVertices.length)
+        {
+            // Растёт только при рывке прокрутки, то есть почти никогда.
+            floorVertices = new float[size];
+            ceilingVertices = new float[size];
+        }
+
+        float[] floor = floorVertices;
+        float[] ceiling = ceilingVertices;
+
+        int width = terrain.getRegionWidth();
+        float texel = (terrain.getU2() - terrain.getU()) / width;
+        float bottomV = terrain.getV2();
+
+        // Столбец текстуры идёт от x прокрутки, поэтому рисунок
+        // неподвижен относительно высот.
+        int column = world.getTerrainFirst() * TerrainSystem.SPACING % width;
+
+        if (column < 0)
+        {
+            column += width;
+        }
+
+        float x = world.getTerrainX() + scrollLag;
+
+        for (int i = 0, sample = 0; i < size; i += HudLayer.SPRITE_SIZE, sample++)
+        {
+            int nextColumn = Math.min(column + TerrainSystem.SPACING, width);
+            float nextX = x + TerrainSystem.SPACING;
+
+            float u = terrain.getU() + column * texel;
+            float u2 = terrain.getU() + nextColumn * texel;
+            float v = terrainSurfaceV[column];
+            float nextV = terrainSurfaceV[nextColumn];
+
+            float y = world.getTerrainFloor(sample);
+            float nextY = world.getTerrainFloor(sample + 1);
+
+            vertex(floor, i, x, 0, u, bottomV);
+            vertex(floor, i + 5, x, y, u, v);
+            vertex(floor, i + 10, nextX, nextY, u2, nextV);
+            vertex(floor, i + 15, nextX, 0, u2, bottomV);
+
+            // Потолок — та же текстура, перевёрнутая по вертикали
+            y = World.HEIGHT - world.getTerrainCeiling(sample);
+            nextY = World.HEIGHT - world.getTerrainCeiling(sample + 1);
+
+            vertex(ceiling, i, x, y, u, v);
+            vertex(ceiling, i + 5, x, World.HEIGHT, u, bottomV);
+            vertex(ceiling, i + 10, nextX, World.HEIGHT, u2, bottomV);
+            vertex(ceiling, i + 15, nextX, nextY, u2, nextV);
+
+            column = nextColumn == width ? 0 : nextColumn;
+            x = nextX;
+        }
+
+        batch.draw(terrain.getTexture(), floor, 0, size);
+        batch.draw(terrain.getTexture(), ceiling, 0, size);
+    }
+
+    private static void vertex(float[] vertices, int i, float x, float y, float u, float v)
+    {
+        vertices[i] = x;
+        vertices[i + 1] = y;
+        vertices[i + 2] = WHITE;
+        vertices[i + 3] = u;
+        vertices[i + 4] = v;
+    }
+
+    private void drawBackground(Batch batch)
+    {
+        // Выключаем смешивание так как рисуем
+        // background-текстуру, которая не накладывается
+        // на другие.
+        batch.disableBlending();
+
+        batch.draw(background, 0, 0);
+
+        batch.enableBlending();
+    }
+
+    public void dispose()
+    {
+        regions = new TextureRegion[0];
+        resolvedNames = null;
+    }
+}
@@ -0,0 +1,227 @@
+package libgdx.thrust.copter;
+
+/**
+ * Настройки сложности мира: частота и число метеоров, расстояние
+ * между столбами, частота бонусов и высота земли. Значения по умолчанию соответствуют
+ * обычной игре.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class WorldSettings
+{
+    private float meteorIntervalMin = 1.5f;
+    private float meteorIntervalMax = 6.5f;
+    private float pillarSpacingMin = 600;
+    private float pillarSpacingMax = 1200;
+    private float pickupRateScale = 1;
+    private float scrollAcceleration = 4;
+    private float gravity = 4;
+    private int pillarCapacity = 64;
+    private int maxMeteors = 1;
+    private int meteorShowerSize = 1;
+    private float terrainHeightMin = 20;
+    private float terrainHeightMax = 60;
+
+    public float getMeteorIntervalMin()
+    {
+        return meteorIntervalMin;
+    }
+
+    public float getMeteorIntervalMax()
+    {
+        return meteorIntervalMax;
+    }
+
+    /**
+     * Интервал между запусками метеоров, секунды.
+     */
+    public WorldSettings setMeteorInterval(float min, float max)
+    {
+        checkRange(min, max);
+
+        meteorIntervalMin = min;
+        meteorIntervalMax = max;
+
+        return this;
+    }
+
+    public float getPillarSpacingMin()
+    {
+        return pillarSpacingMin;
+    }
+
+    public float getPillarSpacingMax()
+    {
+        return pillarSpacingMax;
+    }
+
+    /**
+     * Расстояние между соседними столбами, пиксели.
+     */
+    public WorldSettings setPillarSpacing(float min, float max)
+    {
+        checkRange(min, max);
+
+        pillarSpacingMin = min;
+        pillarSpacingMax = max;
+
+        return this;
+    }
+
+    public float getPickupRateScale()
+    {
+        return pickupRateScale;
+    }
+
+    /**
+     * Множитель частоты появления всех бонусов, 0 — бонусов нет.
+     */
+    public WorldSettings setPickupRateScale(float pickupRateScale)
+    {
+        if (pickupRateScale < 0)
+        {
+            throw new IllegalArgumentException("Pickup rate scale must not be negative: " + pickupRateScale);
+        }
+
+        this.pickupRateScale = pickupRateScale;
+
+        return this;
+    }
+
+    public float getScrollAcceleration()
+    {
+        return scrollAcceleration;
+    }
+
+    /**
+     * Ускорение прокрутки за шаг 1/60 секунды; установившаяся скорость
+     * прокрутки в 100 раз больше, пикселей в секунду.
+     */
+    public WorldSettings setScrollAcceleration(float scrollAcceleration)
+    {
+        if (scrollAcceleration < 0)
+        {
+            throw new IllegalArgumentException("Scroll acceleration must not be negative: " + scrollAcceleration);
+        }
+
+        this.scrollAcceleration = scrollAcceleration;
+
+        return this;
+    }
+
+    public float getGravity()
+    {
+        return gravity;
+    }
+
+    /**
+     * Гравитация за шаг 1/60 секунды.
+     */
+    public WorldSettings setGravity(float gravity)
+    {
+        this.gravity = gravity;
+
+        return this;
+    }
+
+    public int getPillarCapacity()
+    {
+        return pillarCapacity;
+    }
+
+    /**
+     * Под сколько столбов заранее выделить место в хранилище
+     * сущностей. Столбов может стать и больше, тогда хранилище
+     * дорастёт само.
+     */
+    public WorldSettings setPillarCapacity(int pillarCapacity)
+    {
+        if (pillarCapacity <= 0)
+        {
+            throw new IllegalArgumentException("Pillar capacity must be positive: " + pillarCapacity);
+        }
+
+        this.pillarCapacity = pillarCapacity;
+
+        return this;
+    }
+
+    public int getMaxMeteors()
+    {
+        return maxMeteors;
+    }
+
+    /**
+     * Сколько метеоров может быть в сцене одновременно. Запуски
+     * сверх этого пропускаются, в обычной игре метеор один.
+     */
+    public WorldSettings setMaxMeteors(int maxMeteors)
+    {
+        if (maxMeteors <= 0)
+        {
+            throw new IllegalArgumentException("Max meteors must be positive: " + maxMeteors);
+        }
+
+        this.maxMeteors = maxMeteors;
+
+        return this;
+    }
+
+    public int getMeteorShowerSize()
+    {
+        return meteorShowerSize;
+    }
+
+    /**
+     * Сколько метеоров вылетает за один запуск.
+     */
+    public WorldSettings setMeteorShowerSize(int meteorShowerSize)
+    {
+        if (meteorShowerSize <= 0)
+        {
+            throw new IllegalArgumentException("Meteor shower size must be positive: " + meteorShowerSize);
+        }
+
+        this.meteorShowerSize = meteorShowerSize;
+
+        return this;
+    }
+
+    public float getTerrainHeightMin()
+    {
+        return terrainHeightMin;
+    }
+
+    public float getTerrainHeightMax()
+    {
+        return terrainHeightMax;
+    }
+
+    /**
+     * Высота земли снизу и потолка сверху, пиксели. Полосы не должны
+     * сходиться, поэтому максимум меньше половины высоты мира.
+     */
+    public WorldSettings setTerrainHeight(float min, float max)
+    {
+        checkRange(min, max);
+
+        if (max * 2 >= World.HEIGHT)
+        {
+            throw new IllegalArgumentException("Terrain must leave a gap: " + max);
+        }
+
+        terrainHeightMin = min;
+        terrainHeightMax = max;
+
+        return this;
+    }
+
+    private static void checkRange(float min, float max)
+    {
+        if (min <= 0 || max < min)
+        {
+            throw new IllegalArgumentException("Invalid range: " + min + ".." + max);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+
+/**
+ * Копия всего, что нужно для отрисовки {@link World}: самолёт, HUD,
+ * видимые отсчёты земли и спрайты сущностей. Отрисовка читает только
+ * снимок, поэтому мир можно шагать в другом потоке, пока рисуется
+ * прошлый снимок. Сущности копируются одним циклом по семейству
+ * спрайтов, какого бы вида они ни были.
+ * <p>
+ * Заодно снимок копит события мира за шаги, которые он покрывает:
+ * слушатель мира может жить только в потоке отрисовки (звуки,
+ * эффекты), и события доходят до него через
+ * {@link #dispatchEvents(World.Listener)}.
+ * <p>
+ * Массивы растут до максимума и дальше переиспользуются, поэтому
+ * в установившемся режиме снимок ничего не выделяет.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public class WorldSnapshot implements World.Listener
+{
+    private static final byte TAPPED = 0;
+    private static final byte CRASHED = 1;
+    private static final byte METEOR_LAUNCHED = 2;
+    private static final byte PICKED_UP = 3;
+
+    // Запас на экран и сдвиг прокрутки за шаг
+    private static final int TERRAIN_SAMPLES = World.WIDTH / TerrainSystem.SPACING + 16;
+
+    private GameState gameState;
+    private float alpha;
+
+    private float planeX;
+    private float planeY;
+    private float previousPlaneY;
+    private float planeAnimTime;
+    private float deltaPosition;
+
+    private float tapDrawTime;
+    private float touchX;
+    private float touchY;
+
+    private int fuelPercentage;
+    private int shieldCount;
+    private int score;
+
+    // Отсчёты земли и потолка, покрывающие экран, начиная с отсчёта
+    // terrainFirst, который стоит на экранном x terrainX.
+    private int terrainFirst;
+    private float terrainX;
+    private final ShortArray terrainFloor = new ShortArray(TERRAIN_SAMPLES);
+    private final ShortArray terrainCeiling = new ShortArray(TERRAIN_SAMPLES);
+
+    // Спрайт занимает четыре числа: прошлые x и y, текущие x и y
+    private final FloatArray spritePositions = new FloatArray();
+    private final IntArray spriteRegions = new IntArray();
+    // Общий с хранилищем мира и после создания систем не меняется
+    private Array<String> regionNames;
+    private final ByteArray spriteLayers = new ByteArray();
+
+    private final ByteArray events = new ByteArray();
+    private final FloatArray crashPositions = new FloatArray();
+    private final Array<PickupType> pickedUp = new Array<PickupType>();
+
+    /**
+     * Копирует состояние мира после шага.
+     *
+     * @param alpha доля шага, с которой снимок надо рисовать.
+     */
+    public void capture(World world, float alpha)
+    {
+        this.alpha = alpha;
+
+        gameState = world.getGameState();
+
+        planeX = world.getPlanePosition().x;
+        planeY = world.getPlanePosition().y;
+        previousPlaneY = world.getPreviousPlaneY();
+        planeAnimTime = world.getPlaneAnimTime();
+        deltaPosition = world.getDeltaPosition();
+
+        tapDrawTime = world.getTapDrawTime();
+        touchX = world.getTouchPosition().x;
+        touchY = world.getTouchPosition().y;
+
+        fuelPercentage = world.getFuelPercentage();
+        shieldCount = world.getShieldCount();
+        score = world.getScore();
+
+        captureTerrain(world);
+
+        captureSprites(world);
+    }
+
+    private void captureSprites(World world)
+    {
+        Entities entities = world.getEntities();
+        Family sprites = world.getSprites();
+
+        regionNames = entities.getRegionNames();
+
+        spritePositions.clear();
+        spriteRegions.clear();
+        spriteLayers.clear();
+
+        for (int i = 0; i < sprites.size(); i++)
+        {
+            int entity = sprites.get(i);
+
+            spritePositions.add(entities.getPreviousX(entity));
+            spritePositions.add(entities.getPreviousY(entity));
+            spritePositions.add(entities.getX(entity));
+            spritePositions.add(entities.getY(entity));
+            spriteRegions.add(entities.getRegion(entity));
+            spriteLayers.add(entities.getLayer(entity));
+        }
+    }
+
+    private void captureTerrain(World world)
+    {
+        TerrainSystem terrain = world.getTerrainSystem();
+        float scrollDistance = world.getScrollDistance();
+
+        // Отрисовка сдвигает землю на getScrollLag(), он не больше
+        // сдвига за шаг: с этим запасом отсчёты покрывают экран.
+        int first = MathUtils.floor((scrollDistance - Math.max(deltaPosition, 0)) / TerrainSystem.SPACING);
+        int last = MathUtils.ceil((scrollDistance - Math.min(deltaPosition, 0) + World.WIDTH)
+                / TerrainSystem.SPACING);
+
+        terrainFirst = first;
+        terrainX = first * TerrainSystem.SPACING - scrollDistance;
+
+        terrainFloor.clear();
+        terrainCeiling.clear();
+
+        for (int i = first; i <= last; i++)
+        {
+            terrainFloor.add((short) terrain.getFloorSample(i));
+            terrainCeiling.add((short) terrain.getCeilingSample(i));
+        }
+    }
+
+    @Override
+    public void tapped()
+    {
+        events.add(TAPPED);
+    }
+
+    @Override
+    public void crashed(float x, float y)
+    {
+        events.add(CRASHED);
+        crashPositions.add(x);
+        crashPositions.add(y);
+    }
+
+    @Override
+    public void meteorLaunched()
+    {
+        events.add(METEOR_LAUNCHED);
+    }
+
+    @Override
+    public void pickedUp(PickupType type)
+    {
+        events.add(PICKED_UP);
+        pickedUp.add(type);
+    }
+
+    /**
+     * Передаёт накопленные события в том порядке, в каком они
+     * случились, и забывает их.
+     */
+    public void dispatchEvents(World.Listener listener)
+    {
+        int crash = 0;
+        int pickup = 0;
+
+        for (int i = 0; i < events.size; i++)
+        {
+            switch (events.get(i))
+            {
+                case TAPPED:
+                    listener.tapped();
+                    break;
+                case CRASHED:
+                    listener.crashed(crashPositions.get(crash), crashPositions.get(crash + 1));
+                    crash += 2;
+                    break;
+                case METEOR_LAUNCHED:
+                    listener.meteorLaunched();
+                    break;
+                case PICKED_UP:
+                    listener.pickedUp(pickedUp.get(pickup++));
+                    break;
+            }
+        }
+
+        events.clear();
+        crashPositions.clear();
+        pickedUp.clear();
+    }
+
+    public GameState getGameState()
+    {
+        return gameState;
+    }
+
+    /**
+     * @return доля шага симуляции, прошедшая после последнего шага в снимке.
+     */
+    public float getAlpha()
+    {
+        return alpha;
+    }
+
+    public float getPlaneX()
+    {
+        return planeX;
+    }
+
+    /**
+     * @return высота самолёта для отрисовки с учётом интерполяции.
+     */
+    public float getPlaneY()
+    {
+        return MathUtils.lerp(previousPlaneY, planeY, alpha);
+    }
+
+    public float getPlaneAnimTime()
+    {
+        return planeAnimTime;
+    }
+
+    /**
+     * @return на сколько прокрутится мир за недоигранную часть
+     * последнего шага.
+     */
+    public float getScrollLag()
+    {
+        return (1 - alpha) * deltaPosition;
+    }
+
+    /**
+     * @return номер первого отсчёта земли в снимке, от начала прокрутки.
+     */
+    public int getTerrainFirst()
+    {
+        return terrainFirst;
+    }
+
+    /**
+     * @return экранный x первого отсчёта земли без учёта {@link #getScrollLag()}.
+     */
+    public float getTerrainX()
+    {
+        return terrainX;
+    }
+
+    public int getTerrainSampleCount()
+    {
+        return terrainFloor.size;
+    }
+
+    public int getTerrainFloor(int index)
+    {
+        return terrainFloor.get(index);
+    }
+
+    /**
+     * @return на сколько потолок опускается от верха мира.
+     */
+    public int getTerrainCeiling(int index)
+    {
+        return terrainCeiling.get(index);
+    }
+
+    public float getTapDrawTime()
+    {
+        return tapDrawTime;
+    }
+
+    public float getTouchX()
+    {
+        return touchX;
+    }
+
+    public float getTouchY()
+    {
+        return touchY;
+    }
+
+    public int getFuelPercentage()
+    {
+        return fuelPercentage;
+    }
+
+    public int getShieldCount()
+    {
+        return shieldCount;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public int getSpriteCount()
+    {
+        return spriteRegions.size;
+    }
+
+    /**
+     * @return x спрайта с учётом интерполяции.
+     */
+    public float getSpriteX(int index)
+    {
+        return MathUtils.lerp(spritePositions.get(index * 4), spritePositions.get(index * 4 + 2), alpha);
+    }
+
+    /**
+     * @return y спрайта с учётом интерполяции.
+     */
+    public float getSpriteY(int index)
+    {
+        return MathUtils.lerp(spritePositions.get(index * 4 + 1), spritePositions.get(index * 4 + 3), alpha);
+    }
+
+    /**
+     * @return номер региона спрайта в {@link #getRegionNames()}.
+     */
+    public int getSpriteRegion(int index)
+    {
+        return spriteRegions.get(index);
+    }
+
+    /**
+     * @return имена регионов спрайтов по номерам, {@code null} до
+     * первого снимка.
+     */
+    public Array<String> getRegionNames()
+    {
+        return regionNames;
+    }
+
+    /**
+     * @return {@link Entities#BACK_LAYER} или {@link Entities#FRONT_LAYER}.
+     */
+    public byte getSpriteLayer(int index)
+    {
+        return spriteLayers.get(index);
+    }
+}
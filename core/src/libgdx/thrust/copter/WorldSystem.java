@@ -0,0 +1,68 @@
+package libgdx.thrust.copter;
+
+/**
+ * Система мира. Общие системы обходят {@link Family семейства}
+ * сущностей по компонентам — двигают, прокручивают вместе с миром,
+ * удаляют ушедших за экран и проверяют столкновения с самолётом,
+ * не зная, какого вида сущность. Системы видов только создают свои
+ * сущности. {@link World} сам двигает только самолёт, а системы
+ * шагает по очереди одним циклом и меряет каждую отдельно,
+ * поэтому новый вид объектов — это новый набор компонентов и система,
+ * которая его создаёт, а не новый цикл в {@link World#step(float)},
+ * в снимке или в отрисовке.
+ * <p>
+ * Порядок систем важен: они делят генератор мира, и от порядка
+ * зависит воспроизводимость игры по зерну.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public abstract class WorldSystem
+{
+    protected final World world;
+
+    private final FrameStat stat;
+
+    /**
+     * @param stat под каким показателем профайлера мерить систему.
+     */
+    protected WorldSystem(World world, FrameStat stat)
+    {
+        this.world = world;
+        this.stat = stat;
+    }
+
+    public FrameStat getStat()
+    {
+        return stat;
+    }
+
+    /**
+     * В начале шага, до касаний: запомнить состояние для интерполяции.
+     */
+    public void beginStep()
+    {
+    }
+
+    /**
+     * Основной шаг. Самолёт уже сдвинут, {@link World#getPlaneRect()} выставлен.
+     */
+    public abstract void update(float deltaTime);
+
+    /**
+     * Вторая половина шага, после {@link #update(float)} всех систем:
+     * например, появление новых объектов.
+     */
+    public void lateUpdate(float deltaTime)
+    {
+    }
+
+    /**
+     * Начало новой игры.
+     */
+    public abstract void reset();
+
+    public void dispose()
+    {
+    }
+}
@@ -12,6 +12,31 @@ public class DesktopLauncher
         config.width = 800;
         config.height = 480;
 
-        new LwjglApplication(new ThrustCopter(), config);
+        ThrustCopter game = new ThrustCopter();
+
+        // --record <file> сохраняет игру при выходе, --replay <file> проигрывает её,
+        // --profile <file> меряет фазы кадра и пишет перцентили при выходе,
+        // --simulation threaded шагает мир в отдельном потоке
+        for (int i = 0; i + 1 < arg.length; i += 2)
+        {
+            if (arg[i].equals("--record"))
+            {
+                game.setRecordPath(arg[i + 1]);
+            }
+            else if (arg[i].equals("--replay"))
+            {
+                game.setReplayPath(arg[i + 1]);
+            }
+            else if (arg[i].equals("--profile"))
+            {
+                game.setProfilePath(arg[i + 1]);
+            }
+            else if (arg[i].equals("--simulation"))
+            {
+                game.setThreadedSimulation(arg[i + 1].equals("threaded"));
+            }
+        }
+
+        new LwjglApplication(game, config);
     }
 }
@@ -0,0 +1,318 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.FixedTimestep;
+import libgdx.thrust.copter.GameState;
+import libgdx.thrust.copter.ParticleEffects;
+import libgdx.thrust.copter.PickupType;
+import libgdx.thrust.copter.PickupTypes;
+import libgdx.thrust.copter.QualityLevel;
+import libgdx.thrust.copter.QualityScaler;
+import libgdx.thrust.copter.Simulation;
+import libgdx.thrust.copter.SpriteMetrics;
+import libgdx.thrust.copter.World;
+import libgdx.thrust.copter.WorldRenderer;
+import libgdx.thrust.copter.WorldSettings;
+import libgdx.thrust.copter.WorldSnapshot;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * Проверка, что шаг мира и отрисовка кадра в установившемся режиме
+ * ничего не выделяют, вместе с {@link QualityScaler}. Играет автопилотом с перезапусками после
+ * смерти, после прогрева считает байты, выделенные потоком, и
+ * завершается с кодом 1, если их больше нуля.
+ * <p>
+ * Второй прогон шагает мир через {@link Simulation} в отдельном
+ * потоке и считает байты обоих потоков: передача порции шагов
+ * и обмен снимками тоже не должны выделять.
+ * <p>
+ * Запускать стоит с {@code -Xint}: JIT при деоптимизации сам
+ * выделяет немного памяти в потоке, и это шум, а не выделения
+ * игры. Интерпретатор же честно выполняет каждое {@code new}.
+ * <p>
+ * Аргументы: {@code [ticks] [warmupTicks] [seed]}.
+ */
+public class AllocationProbe
+{
+    private static final int TICK_RATE = 60;
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private static final long FRAME_NANOS = 1000000000L / TICK_RATE;
+
+    // Имя потока, который заводит Simulation
+    private static final String SIMULATION_THREAD = "Simulation";
+
+    // Касание под самолётом толкает его вверх; в отдельном потоке
+    // мир не виден, и автопилот смотрит на снимок.
+    private static final float CRUISE_Y = 204;
+    private static final int TAP_COOLDOWN_FRAMES = 10;
+
+    private SpriteMetrics metrics;
+    private PickupTypes types;
+    private WorldRenderer renderer;
+    private ParticleEffects effects;
+    private World.Listener listener;
+
+    public static void main(String[] args)
+    {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        if (!ThreadAllocation.isSupported())
+        {
+            System.err.println("Thread allocation counting is not supported by this JVM");
+            System.exit(2);
+        }
+
+        AllocationProbe probe = new AllocationProbe();
+
+        long bytes = probe.run(ticks, warmup, seed);
+        System.out.println("Allocated " + bytes + " bytes in " + ticks + " steady-state ticks");
+
+        long threadedBytes = probe.runThreaded(ticks, warmup, seed);
+        System.out.println("Allocated " + threadedBytes + " bytes in " + ticks
+                + " steady-state frames with threaded simulation");
+
+        if (bytes > 0 || threadedBytes > 0)
+        {
+            System.out.println("FAILED: update/draw path allocates");
+            System.exit(1);
+        }
+
+        System.out.println("OK");
+    }
+
+    /**
+     * @return байты, выделенные за {@code ticks} шагов после прогрева.
+     */
+    public long run(int ticks, int warmup, long seed)
+    {
+        load();
+
+        World world = new World(metrics, types, new WorldSettings(), seed);
+        world.setListener(listener);
+
+        NullBatch batch = new NullBatch();
+        WorldSnapshot snapshot = new WorldSnapshot();
+        Pilot pilot = new ScriptedPilot(10);
+        RandomXS128 random = new RandomXS128(seed);
+        // Быстрые кадры на верхнем уровне: скалер каждый кадр
+        // спрашивает уровень выше и остаётся на месте.
+        QualityScaler quality = new QualityScaler(1f / TICK_RATE, QualityLevel.HIGH);
+
+        play(world, snapshot, batch, pilot, random, quality, warmup);
+
+        // Сам замер тоже может выделять память: вычитаем стоимость
+        // одного чтения счётчика.
+        long before = ThreadAllocation.current();
+        long after = ThreadAllocation.current();
+        long overhead = after - before;
+        long start = ThreadAllocation.current();
+
+        play(world, snapshot, batch, pilot, random, quality, ticks);
+
+        return ThreadAllocation.current() - start - overhead;
+    }
+
+    /**
+     * @return байты, выделенные потоками отрисовки и симуляции
+     * за {@code frames} кадров после прогрева.
+     */
+    public long runThreaded(int frames, int warmup, long seed)
+    {
+        load();
+
+        World world = new World(metrics, types, new WorldSettings(), seed);
+        Simulation simulation = new Simulation(world, new FixedTimestep(TICK_RATE, MAX_STEPS_PER_FRAME),
+                null, true);
+        Thread simulationThread = findThread(SIMULATION_THREAD);
+
+        NullBatch batch = new NullBatch();
+        QualityScaler quality = new QualityScaler(1f / TICK_RATE, QualityLevel.HIGH);
+        long[] time = {0};
+
+        try
+        {
+            playThreaded(simulation, batch, quality, time, warmup);
+            simulation.finish();
+
+            long before = ThreadAllocation.current();
+            long after = ThreadAllocation.current();
+            long overhead = after - before;
+
+            before = ThreadAllocation.of(simulationThread);
+            after = ThreadAllocation.of(simulationThread);
+            overhead += after - before;
+
+            long start = ThreadAllocation.current();
+            long simulationStart = ThreadAllocation.of(simulationThread);
+
+            playThreaded(simulation, batch, quality, time, frames);
+            simulation.finish();
+
+            long simulationBytes = ThreadAllocation.of(simulationThread) - simulationStart;
+
+            return ThreadAllocation.current() - start + simulationBytes - overhead;
+        }
+        finally
+        {
+            simulation.dispose();
+        }
+    }
+
+    /**
+     * Грузит всё, что не зависит от прогона.
+     */
+    private void load()
+    {
+        if (renderer != null)
+        {
+            return;
+        }
+
+        metrics = HeadlessAssets.loadMetrics(HeadlessAssets.DEFAULT_ATLAS);
+        TextureAtlas atlas = HeadlessGraphics.loadAtlas(HeadlessAssets.DEFAULT_ATLAS);
+
+        types = PickupTypes.createDefault();
+        types.resolveTextures(atlas);
+
+        renderer = new WorldRenderer(atlas, HeadlessGraphics.loadFont("impact-40.fnt", atlas));
+        renderer.setTerrainSurface(metrics.getMask(World.TERRAIN_REGION));
+
+        effects = new ParticleEffects(1000);
+        effects.register(ParticleEffects.SMOKE,
+                HeadlessGraphics.loadEffect(ParticleEffects.SMOKE, atlas), 3);
+        effects.register(ParticleEffects.EXPLOSION,
+                HeadlessGraphics.loadEffect(ParticleEffects.EXPLOSION, atlas), 8);
+        renderer.setEffects(effects);
+
+        listener = new World.Listener()
+        {
+            @Override
+            public void tapped()
+            {
+            }
+
+            @Override
+            public void crashed(float x, float y)
+            {
+                effects.spawn(ParticleEffects.EXPLOSION, x, y);
+            }
+
+            @Override
+            public void meteorLaunched()
+            {
+            }
+
+            @Override
+            public void pickedUp(PickupType type)
+            {
+            }
+        };
+    }
+
+    private static Thread findThread(String name)
+    {
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+        {
+            if (thread.getName().equals(name))
+            {
+                return thread;
+            }
+        }
+
+        throw new IllegalStateException("No thread named " + name);
+    }
+
+    private void play(World world, WorldSnapshot snapshot, NullBatch batch, Pilot pilot, RandomXS128 random,
+                      QualityScaler quality, int ticks)
+    {
+        float step = 1f / TICK_RATE;
+        PooledEffect smoke = null;
+
+        for (int i = 0; i < ticks; i++)
+        {
+            if (world.getGameState() == GameState.ACTION)
+            {
+                pilot.fly(world, random);
+            }
+            else
+            {
+                // Перезапуск после смерти и старт новой игры.
+                world.tap(0, 0);
+            }
+
+            world.step(step);
+
+            // Дым как в сцене: тянется за самолётом, пока тот летит.
+            if (world.getGameState() == GameState.ACTION)
+            {
+                if (smoke == null)
+                {
+                    smoke = effects.startTrail(ParticleEffects.SMOKE);
+                }
+
+                smoke.setPosition(world.getPlanePosition().x + 20, world.getPlanePosition().y + 30);
+            }
+            else if (smoke != null)
+            {
+                effects.stopTrail(smoke);
+                smoke = null;
+            }
+
+            effects.update(step);
+
+            snapshot.capture(world, 0.5f);
+
+            batch.begin();
+            renderer.draw(batch, snapshot);
+            batch.end();
+
+            quality.update(step, step / 2);
+        }
+
+        if (smoke != null)
+        {
+            effects.stopTrail(smoke);
+        }
+    }
+
+    /**
+     * Кадры по 1/60 секунды по своим часам {@code time}; мир шагает
+     * поток симуляции, а кадр рисует последний готовый снимок.
+     */
+    private void playThreaded(Simulation simulation, NullBatch batch, QualityScaler quality, long[] time,
+                              int frames)
+    {
+        float step = 1f / TICK_RATE;
+        int cooldown = 0;
+
+        for (int i = 0; i < frames; i++)
+        {
+            time[0] += FRAME_NANOS;
+
+            WorldSnapshot snapshot = simulation.update(step, time[0]);
+
+            snapshot.dispatchEvents(listener);
+            effects.update(step);
+
+            batch.begin();
+            renderer.draw(batch, snapshot);
+            batch.end();
+
+            quality.update(step, step / 2);
+
+            if (cooldown > 0)
+            {
+                cooldown--;
+            }
+            else if (snapshot.getGameState() != GameState.ACTION || snapshot.getPlaneY() < CRUISE_Y)
+            {
+                // Перезапуск после смерти, старт и подъём.
+                simulation.tap(snapshot.getPlaneX(), snapshot.getPlaneY() - 100, time[0]);
+                cooldown = TAP_COOLDOWN_FRAMES;
+            }
+        }
+    }
+}
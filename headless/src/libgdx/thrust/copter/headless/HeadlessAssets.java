@@ -0,0 +1,123 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.CollisionMask;
+import libgdx.thrust.copter.SpriteMetrics;
+import libgdx.thrust.copter.World;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Загрузка того, что нужно миру без GPU: размеры спрайтов
+ * читаются прямо из .pack-файла атласа, текстуры не грузятся.
+ * Маски столкновений запекаются из тех же PNG-страниц через ImageIO,
+ * с тем же порогом альфы, что и в игре, поэтому симуляция совпадает.
+ */
+public class HeadlessAssets
+{
+    public static final String DEFAULT_ATLAS = "ThrustCopter.pack";
+
+    private HeadlessAssets()
+    {
+    }
+
+    public static SpriteMetrics loadMetrics(String packPath)
+    {
+        File file = new File(packPath);
+
+        if (!file.isFile())
+        {
+            throw new IllegalArgumentException("Atlas not found: " + file.getAbsolutePath());
+        }
+
+        FileHandle pack = new FileHandle(file.getAbsoluteFile());
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(pack, pack.parent(), false);
+
+        SpriteMetrics metrics = SpriteMetrics.fromAtlasData(data);
+        bakeMasks(metrics, data, World.MASKED_REGIONS);
+
+        return metrics;
+    }
+
+    private static void bakeMasks(SpriteMetrics metrics, TextureAtlas.TextureAtlasData data, String... names)
+    {
+        ObjectMap<FileHandle, BufferedImage> pages = new ObjectMap<FileHandle, BufferedImage>();
+        Array<TextureAtlas.TextureAtlasData.Region> regions = data.getRegions();
+
+        for (String name : names)
+        {
+            TextureAtlas.TextureAtlasData.Region region = findRegion(regions, name);
+
+            if (region.rotate)
+            {
+                throw new IllegalArgumentException("Rotated sprites can't have masks: " + name);
+            }
+
+            BufferedImage page = pages.get(region.page.textureFile);
+
+            if (page == null)
+            {
+                page = readImage(region.page.textureFile);
+                pages.put(region.page.textureFile, page);
+            }
+
+            CollisionMask mask = new CollisionMask(region.width, region.height);
+
+            for (int y = 0; y < region.height; y++)
+            {
+                for (int x = 0; x < region.width; x++)
+                {
+                    // Строки картинки идут сверху, маски — снизу
+                    if (page.getRGB(region.left + x, region.top + y) >>> 24 >= CollisionMask.ALPHA_THRESHOLD)
+                    {
+                        mask.set(x, region.height - 1 - y);
+                    }
+                }
+            }
+
+            metrics.putMask(name, mask);
+        }
+    }
+
+    private static TextureAtlas.TextureAtlasData.Region findRegion(
+            Array<TextureAtlas.TextureAtlasData.Region> regions, String name)
+    {
+        for (int i = 0; i < regions.size; i++)
+        {
+            if (regions.get(i).name.equals(name))
+            {
+                return regions.get(i);
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown sprite: " + name);
+    }
+
+    private static BufferedImage readImage(FileHandle file)
+    {
+        BufferedImage image;
+
+        try
+        {
+            image = ImageIO.read(file.file());
+        }
+        catch (IOException e)
+        {
+            throw new GdxRuntimeException("Can't read atlas page " + file, e);
+        }
+
+        if (image == null)
+        {
+            throw new GdxRuntimeException("Unsupported atlas page format: " + file);
+        }
+
+        return image;
+    }
+}
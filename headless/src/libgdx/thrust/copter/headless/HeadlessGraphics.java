@@ -0,0 +1,206 @@
+package libgdx.thrust.copter.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Графические ресурсы без GPU для прогона кода отрисовки в {@link NullBatch}.
+ * Вместо GL ставится заглушка, которая ничего не делает, а текстуры
+ * создаются пустыми нужного размера, так что атлас и шрифт дают
+ * настоящие регионы и глифы.
+ */
+public class HeadlessGraphics
+{
+    private static final int PAGE_SIZE = 1024;
+
+    private HeadlessGraphics()
+    {
+    }
+
+    /**
+     * Ставит заглушки GL и Application, если настоящих нет. GL нужен
+     * только при создании текстур: {@link NullBatch} к нему не
+     * обращается. Application нужен разметке шрифта, которая
+     * заводит свои пулы при первом {@code Gdx.app}.
+     */
+    public static synchronized void installNullGL()
+    {
+        if (Gdx.gl == null)
+        {
+            GL20 gl = nullProxy(GL20.class);
+
+            Gdx.gl = gl;
+            Gdx.gl20 = gl;
+        }
+
+        if (Gdx.app == null)
+        {
+            Gdx.app = nullProxy(Application.class);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T nullProxy(Class<T> type)
+    {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[]{type}, new InvocationHandler()
+                {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                    {
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (type == int.class)
+        {
+            return 0;
+        }
+        if (type == boolean.class)
+        {
+            return false;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == String.class)
+        {
+            return "";
+        }
+        return null;
+    }
+
+    public static Texture emptyTexture(final int width, final int height)
+    {
+        installNullGL();
+
+        return new Texture(new TextureData()
+        {
+            @Override
+            public TextureDataType getType()
+            {
+                return TextureDataType.Custom;
+            }
+
+            @Override
+            public boolean isPrepared()
+            {
+                return true;
+            }
+
+            @Override
+            public void prepare()
+            {
+            }
+
+            @Override
+            public Pixmap consumePixmap()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean disposePixmap()
+            {
+                return false;
+            }
+
+            @Override
+            public void consumeCustomData(int target)
+            {
+            }
+
+            @Override
+            public int getWidth()
+            {
+                return width;
+            }
+
+            @Override
+            public int getHeight()
+            {
+                return height;
+            }
+
+            @Override
+            public Pixmap.Format getFormat()
+            {
+                return Pixmap.Format.RGBA8888;
+            }
+
+            @Override
+            public boolean useMipMaps()
+            {
+                return false;
+            }
+
+            @Override
+            public boolean isManaged()
+            {
+                return false;
+            }
+        });
+    }
+
+    public static TextureAtlas loadAtlas(String packPath)
+    {
+        FileHandle pack = new FileHandle(new File(packPath));
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(pack, pack.parent(), false);
+
+        for (TextureAtlas.TextureAtlasData.Page page : data.getPages())
+        {
+            // Размер страницы в .pack необязателен
+            int width = page.width > 0 ? (int) page.width : PAGE_SIZE;
+            int height = page.height > 0 ? (int) page.height : PAGE_SIZE;
+
+            page.texture = emptyTexture(width, height);
+        }
+
+        return new TextureAtlas(data);
+    }
+
+    /**
+     * Шрифт, страница которого лежит в атласе регионом с именем файла.
+     */
+    public static BitmapFont loadFont(String fontPath, TextureAtlas atlas)
+    {
+        FileHandle font = new FileHandle(new File(fontPath));
+        TextureRegion page = atlas.findRegion(font.nameWithoutExtension());
+
+        if (page == null)
+        {
+            throw new IllegalArgumentException("No font page in the atlas: " + fontPath);
+        }
+
+        return new BitmapFont(font, page, false);
+    }
+
+    /**
+     * Эффект частиц, картинки которого лежат в атласе.
+     */
+    public static ParticleEffect loadEffect(String effectPath, TextureAtlas atlas)
+    {
+        ParticleEffect effect = new ParticleEffect();
+        effect.load(new FileHandle(new File(effectPath)), atlas);
+
+        return effect;
+    }
+}
@@ -0,0 +1,19 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.World;
+
+import java.util.Random;
+
+/**
+ * Автопилот для прогонов без игрока. Вызывается перед каждым шагом
+ * мира и может коснуться экрана через {@link World#tap(float, float)}.
+ */
+public interface Pilot
+{
+    /**
+     * Сбрасывает состояние перед новым прогоном.
+     */
+    void reset();
+
+    void fly(World world, Random random);
+}
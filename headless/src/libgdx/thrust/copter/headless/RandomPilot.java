@@ -0,0 +1,33 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.World;
+
+import java.util.Random;
+
+/**
+ * Касается случайной точки экрана с заданной вероятностью на шаг.
+ */
+public class RandomPilot implements Pilot
+{
+    private final float tapChance;
+
+    public RandomPilot(float tapChance)
+    {
+        this.tapChance = tapChance;
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public void fly(World world, Random random)
+    {
+        if (random.nextFloat() < tapChance)
+        {
+            world.tap(random.nextFloat() * World.WIDTH,
+                    random.nextFloat() * World.HEIGHT);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.GameState;
+import libgdx.thrust.copter.PickupTypes;
+import libgdx.thrust.copter.Replay;
+import libgdx.thrust.copter.ReplayPlayer;
+import libgdx.thrust.copter.SpriteMetrics;
+import libgdx.thrust.copter.World;
+import libgdx.thrust.copter.WorldSettings;
+import com.badlogic.gdx.math.RandomXS128;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Прогон корпуса записей без отрисовки как регрессионного теста
+ * производительности: для каждой записи печатает наносекунды
+ * и выделенные байты на шаг, а также проверяет, что повтор
+ * не разошёлся с записью. Сравнивая вывод двух сборок, видно,
+ * что стало медленнее или начало выделять память.
+ * <p>
+ * {@code record <dir> [count] [seed]} — записать корпус автопилотом;<br>
+ * {@code run <dir> [iterations]} — прогнать корпус, вывод в CSV.
+ */
+public class ReplayRunner
+{
+    public static final String EXTENSION = ".replay";
+
+    private static final int TICK_RATE = 60;
+    private static final int MAX_TICKS = 60 * TICK_RATE;
+    private static final int WARMUP_ITERATIONS = 5;
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: record <dir> [count] [seed] | run <dir> [iterations]");
+            System.exit(1);
+        }
+
+        SpriteMetrics metrics = HeadlessAssets.loadMetrics(HeadlessAssets.DEFAULT_ATLAS);
+        File dir = new File(args[1]);
+
+        if (args[0].equals("record"))
+        {
+            int count = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+            record(metrics, dir, count, seed);
+        }
+        else if (args[0].equals("run"))
+        {
+            int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+            if (!run(metrics, dir, iterations, System.out))
+            {
+                System.exit(2);
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    private static void record(SpriteMetrics metrics, File dir, int count, long seed) throws IOException
+    {
+        if (!dir.isDirectory() && !dir.mkdirs())
+        {
+            throw new IOException("Can't create " + dir);
+        }
+
+        World world = new World(metrics, PickupTypes.createDefault(), new WorldSettings(), seed);
+        Pilot pilot = new ScriptedPilot(10);
+        RandomXS128 pilotRandom = new RandomXS128();
+        float step = 1f / TICK_RATE;
+
+        for (int i = 0; i < count; i++)
+        {
+            world.reset(seed + i);
+            pilotRandom.setSeed(~(seed + i));
+            pilot.reset();
+
+            world.startRecording(TICK_RATE);
+            world.tap(0, 0);
+
+            do
+            {
+                pilot.fly(world, pilotRandom);
+                world.step(step);
+            }
+            while (world.getGameState() != GameState.GAME_OVER && world.getTick() < MAX_TICKS);
+
+            Replay replay = world.stopRecording();
+            File file = new File(dir, String.format(Locale.US, "game-%04d%s", i, EXTENSION));
+            OutputStream output = new BufferedOutputStream(new FileOutputStream(file));
+
+            try
+            {
+                replay.write(output);
+            }
+            finally
+            {
+                output.close();
+            }
+
+            System.out.println(file.getName() + ": " + replay.getLength() + " ticks, "
+                    + replay.getTapCount() + " taps, score " + world.getScore());
+        }
+    }
+
+    /**
+     * @return все ли записи воспроизвелись без расхождений.
+     */
+    public static boolean run(SpriteMetrics metrics, File dir, int iterations, PrintStream out) throws IOException
+    {
+        File[] files = dir.listFiles();
+
+        if (files == null)
+        {
+            throw new IOException("Not a directory: " + dir);
+        }
+
+        Arrays.sort(files);
+
+        boolean allMatched = true;
+
+        out.println("replay,ticks,taps,ns_per_tick,bytes_per_tick,matched");
+
+        for (File file : files)
+        {
+            if (!file.getName().endsWith(EXTENSION))
+            {
+                continue;
+            }
+
+            Replay replay = read(file);
+            World world = new World(metrics, PickupTypes.createDefault(), replay.getSettings(), replay.getSeed());
+            ReplayPlayer player = new ReplayPlayer(replay);
+
+            boolean matched = true;
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            {
+                matched &= player.run(world);
+            }
+
+            long bytes = ThreadAllocation.current();
+            long start = System.nanoTime();
+
+            for (int i = 0; i < iterations; i++)
+            {
+                matched &= player.run(world);
+            }
+
+            long nanos = System.nanoTime() - start;
+            bytes = ThreadAllocation.current() - bytes;
+
+            long ticks = (long) replay.getLength() * iterations;
+            allMatched &= matched;
+
+            out.println(String.format(Locale.US, "%s,%d,%d,%.1f,%s,%b",
+                    file.getName(), replay.getLength(), replay.getTapCount(),
+                    (double) nanos / ticks,
+                    ThreadAllocation.isSupported() ? String.format(Locale.US, "%.3f", (double) bytes / ticks) : "n/a",
+                    matched));
+        }
+
+        return allMatched;
+    }
+
+    private static Replay read(File file) throws IOException
+    {
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+
+        try
+        {
+            return Replay.read(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+}
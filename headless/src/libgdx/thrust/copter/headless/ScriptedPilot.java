@@ -0,0 +1,119 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.Entities;
+import libgdx.thrust.copter.Family;
+import libgdx.thrust.copter.TerrainSystem;
+import libgdx.thrust.copter.World;
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Random;
+
+/**
+ * Простой автопилот: держит высоту посередине между препятствиями,
+ * не ниже земли и не выше потолка впереди, и подталкивает самолёт
+ * снизу, когда он проваливается.
+ * Касание отталкивает самолёт от точки касания, поэтому касание
+ * прямо под самолётом толкает его вверх.
+ */
+public class ScriptedPilot implements Pilot
+{
+    private static final float CRUISE_Y = 204;
+    private static final float ABOVE_PILLAR_Y = 300;
+    private static final float BELOW_PILLAR_Y = 110;
+    private static final float LOOK_AHEAD = 500;
+    private static final float REACTION_TIME = 0.3f;
+    private static final float TAP_DISTANCE = 300;
+    private static final float TERRAIN_AHEAD = 200;
+    private static final float TERRAIN_CLEARANCE = 30;
+    private static final float PLANE_HEIGHT = 73;
+
+    private final int cooldownTicks;
+    private int cooldown;
+
+    /**
+     * @param cooldownTicks минимум шагов между касаниями.
+     */
+    public ScriptedPilot(int cooldownTicks)
+    {
+        this.cooldownTicks = cooldownTicks;
+    }
+
+    @Override
+    public void reset()
+    {
+        cooldown = 0;
+    }
+
+    @Override
+    public void fly(World world, Random random)
+    {
+        if (cooldown > 0)
+        {
+            cooldown--;
+            return;
+        }
+
+        Vector2 position = world.getPlanePosition();
+        Vector2 velocity = world.getPlaneVelocity();
+
+        float predictedY = position.y + velocity.y * REACTION_TIME;
+
+        if (predictedY < targetY(world))
+        {
+            // Немного разброса, чтобы прогоны с разными зёрнами расходились.
+            world.tap(position.x + (random.nextFloat() - 0.5f) * 40,
+                    position.y - TAP_DISTANCE);
+            cooldown = cooldownTicks;
+        }
+    }
+
+    private float targetY(World world)
+    {
+        float planeX = world.getPlanePosition().x;
+        float targetY = pillarTargetY(world, planeX);
+
+        // Самые высокие земля и потолок на ближайшем участке
+        TerrainSystem terrain = world.getTerrainSystem();
+        float floor = 0;
+        float ceiling = 0;
+
+        for (float x = planeX; x <= planeX + TERRAIN_AHEAD; x += TerrainSystem.SPACING)
+        {
+            floor = Math.max(floor, terrain.getFloorHeight(x));
+            ceiling = Math.max(ceiling, terrain.getCeilingHeight(x));
+        }
+
+        targetY = Math.min(targetY, World.HEIGHT - ceiling - PLANE_HEIGHT - TERRAIN_CLEARANCE);
+
+        return Math.max(targetY, floor + TERRAIN_CLEARANCE);
+    }
+
+    private float pillarTargetY(World world, float planeX)
+    {
+        Entities entities = world.getEntities();
+        Family pillars = world.getPillars();
+
+        // Ближайший столб впереди
+        int nearest = -1;
+
+        for (int i = 0; i < pillars.size(); i++)
+        {
+            int pillar = pillars.get(i);
+            float distance = entities.getX(pillar) - planeX;
+
+            if (distance > -100 && distance < LOOK_AHEAD
+                    && (nearest < 0 || entities.getX(pillar) < entities.getX(nearest)))
+            {
+                nearest = pillar;
+            }
+        }
+
+        if (nearest < 0)
+        {
+            return CRUISE_Y;
+        }
+
+        // Столб, стоящий на земле, облетаем сверху
+        return entities.getY(nearest) == 0 ? ABOVE_PILLAR_Y : BELOW_PILLAR_Y;
+    }
+}
@@ -0,0 +1,226 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.GameState;
+import libgdx.thrust.copter.PickupTypes;
+import libgdx.thrust.copter.SpriteMetrics;
+import libgdx.thrust.copter.World;
+import libgdx.thrust.copter.WorldSettings;
+import com.badlogic.gdx.math.RandomXS128;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетный прогон множества независимых игр без графики для подбора
+ * сложности. Каждый поток держит свой мир и автопилот и забирает
+ * прогоны из общего счётчика, так что нагрузка делится поровну,
+ * а потоки ничего не разделяют, кроме неизменяемых размеров спрайтов.
+ * <p>
+ * Пример: {@code --runs 10000 --pilot scripted --meteor-interval 1,4}
+ */
+public class SimulationFarm
+{
+    private int runs = 1000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+    private String pilot = "scripted";
+    private int tickRate = 60;
+    private float maxSeconds = 300;
+    private String atlas = HeadlessAssets.DEFAULT_ATLAS;
+    private WorldSettings settings = new WorldSettings();
+
+    public static void main(String[] args) throws Exception
+    {
+        SimulationFarm farm = new SimulationFarm();
+        farm.parse(args);
+        farm.run();
+    }
+
+    private void parse(String[] args)
+    {
+        for (int i = 0; i < args.length; i++)
+        {
+            String option = args[i];
+
+            if (i + 1 >= args.length)
+            {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+
+            String value = args[++i];
+
+            if (option.equals("--runs"))
+            {
+                runs = Integer.parseInt(value);
+            }
+            else if (option.equals("--threads"))
+            {
+                threads = Integer.parseInt(value);
+            }
+            else if (option.equals("--seed"))
+            {
+                seed = Long.parseLong(value);
+            }
+            else if (option.equals("--pilot"))
+            {
+                pilot = value;
+                createPilot();
+            }
+            else if (option.equals("--tick-rate"))
+            {
+                tickRate = Integer.parseInt(value);
+            }
+            else if (option.equals("--max-seconds"))
+            {
+                maxSeconds = Float.parseFloat(value);
+            }
+            else if (option.equals("--atlas"))
+            {
+                atlas = value;
+            }
+            else if (option.equals("--meteor-interval"))
+            {
+                float[] range = parseRange(value);
+                settings.setMeteorInterval(range[0], range[1]);
+            }
+            else if (option.equals("--max-meteors"))
+            {
+                settings.setMaxMeteors(Integer.parseInt(value));
+            }
+            else if (option.equals("--meteor-shower"))
+            {
+                settings.setMeteorShowerSize(Integer.parseInt(value));
+            }
+            else if (option.equals("--pillar-spacing"))
+            {
+                float[] range = parseRange(value);
+                settings.setPillarSpacing(range[0], range[1]);
+            }
+            else if (option.equals("--pickup-rate"))
+            {
+                settings.setPickupRateScale(Float.parseFloat(value));
+            }
+            else if (option.equals("--terrain-height"))
+            {
+                float[] range = parseRange(value);
+                settings.setTerrainHeight(range[0], range[1]);
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+    }
+
+    private static float[] parseRange(String value)
+    {
+        String[] parts = value.split(",");
+
+        if (parts.length != 2)
+        {
+            throw new IllegalArgumentException("Expected min,max: " + value);
+        }
+
+        return new float[]{Float.parseFloat(parts[0]), Float.parseFloat(parts[1])};
+    }
+
+    private Pilot createPilot()
+    {
+        if (pilot.equals("scripted"))
+        {
+            return new ScriptedPilot(10);
+        }
+
+        if (pilot.equals("random"))
+        {
+            return new RandomPilot(0.03f);
+        }
+
+        throw new IllegalArgumentException("Unknown pilot: " + pilot);
+    }
+
+    private void run() throws Exception
+    {
+        final SpriteMetrics metrics = HeadlessAssets.loadMetrics(atlas);
+        final AtomicInteger nextRun = new AtomicInteger();
+        final float step = 1f / tickRate;
+        final long maxTicks = (long) (maxSeconds * tickRate);
+
+        System.out.println("Running " + runs + " games on " + threads + " threads, pilot "
+                + pilot + ", seed " + seed + ", " + tickRate + " ticks/s");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<SimulationStats>> results = new ArrayList<Future<SimulationStats>>();
+
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++)
+        {
+            results.add(executor.submit(new Callable<SimulationStats>()
+            {
+                @Override
+                public SimulationStats call()
+                {
+                    long workerStart = System.nanoTime();
+
+                    SimulationStats stats = new SimulationStats();
+                    World world = new World(metrics, PickupTypes.createDefault(), settings, seed);
+                    Pilot worldPilot = createPilot();
+                    RandomXS128 pilotRandom = new RandomXS128();
+
+                    for (int run = nextRun.getAndIncrement(); run < runs; run = nextRun.getAndIncrement())
+                    {
+                        // Результат прогона зависит только от зерна и номера,
+                        // но не от того, какой поток его забрал.
+                        long runSeed = seed * 31 + run;
+
+                        world.reset(runSeed);
+                        pilotRandom.setSeed(~runSeed);
+                        worldPilot.reset();
+                        simulate(world, worldPilot, pilotRandom, step, maxTicks, stats);
+                    }
+
+                    stats.addNanos(System.nanoTime() - workerStart);
+
+                    return stats;
+                }
+            }));
+        }
+
+        SimulationStats total = new SimulationStats();
+
+        for (Future<SimulationStats> result : results)
+        {
+            total.merge(result.get());
+        }
+
+        long wallNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        total.print(System.out, wallNanos, threads);
+    }
+
+    private static void simulate(World world, Pilot pilot, RandomXS128 random, float step,
+                                 long maxTicks, SimulationStats stats)
+    {
+        // Первое касание только запускает игру.
+        world.tap(0, 0);
+        world.step(step);
+
+        long ticks = 1;
+
+        while (world.getGameState() == GameState.ACTION && ticks < maxTicks)
+        {
+            pilot.fly(world, random);
+            world.step(step);
+            ticks++;
+        }
+
+        stats.addRun(world.getFlightTime(), world.getScore(), world.getDeathCause(), ticks);
+    }
+}
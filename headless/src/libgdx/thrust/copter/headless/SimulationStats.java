@@ -0,0 +1,144 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.DeathCause;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Итоги серии прогонов. Каждый поток копит свою статистику,
+ * в конце они сливаются через {@link #merge}.
+ */
+public class SimulationStats
+{
+    private final FloatArray survivalTimes = new FloatArray();
+    private final IntArray scores = new IntArray();
+    private final long[] deaths = new long[DeathCause.values().length];
+
+    private long timeouts;
+    private long ticks;
+    private long nanos;
+
+    /**
+     * @param cause {@link DeathCause#NONE}, если прогон упёрся в лимит времени.
+     */
+    public void addRun(float survivalTime, int score, DeathCause cause, long runTicks)
+    {
+        survivalTimes.add(survivalTime);
+        scores.add(score);
+        ticks += runTicks;
+
+        if (cause == DeathCause.NONE)
+        {
+            timeouts++;
+        }
+        else
+        {
+            deaths[cause.ordinal()]++;
+        }
+    }
+
+    public void addNanos(long workerNanos)
+    {
+        nanos += workerNanos;
+    }
+
+    public void merge(SimulationStats other)
+    {
+        survivalTimes.addAll(other.survivalTimes);
+        scores.addAll(other.scores);
+        timeouts += other.timeouts;
+        ticks += other.ticks;
+        nanos += other.nanos;
+
+        for (int i = 0; i < deaths.length; i++)
+        {
+            deaths[i] += other.deaths[i];
+        }
+    }
+
+    public int getRuns()
+    {
+        return survivalTimes.size;
+    }
+
+    public long getTicks()
+    {
+        return ticks;
+    }
+
+    /**
+     * @param wallNanos реальное время всей серии.
+     */
+    public void print(PrintStream out, long wallNanos, int threads)
+    {
+        int runs = getRuns();
+
+        if (runs == 0)
+        {
+            out.println("No runs");
+            return;
+        }
+
+        float[] survival = survivalTimes.toArray();
+        int[] score = scores.toArray();
+        java.util.Arrays.sort(survival);
+        java.util.Arrays.sort(score);
+
+        out.println(String.format(Locale.US, "Runs:            %d", runs));
+        out.println(String.format(Locale.US, "Survival, s:     mean %.2f  p10 %.2f  p50 %.2f  p90 %.2f  max %.2f",
+                mean(survival), survival[percentile(runs, 10)], survival[percentile(runs, 50)],
+                survival[percentile(runs, 90)], survival[runs - 1]));
+        out.println(String.format(Locale.US, "Score:           mean %.2f  p10 %d  p50 %d  p90 %d  max %d",
+                mean(score), score[percentile(runs, 10)], score[percentile(runs, 50)],
+                score[percentile(runs, 90)], score[runs - 1]));
+
+        out.println("Death causes:");
+        for (DeathCause cause : DeathCause.values())
+        {
+            if (cause != DeathCause.NONE)
+            {
+                printShare(out, cause.name(), deaths[cause.ordinal()], runs);
+            }
+        }
+        printShare(out, "TIMEOUT", timeouts, runs);
+
+        double wallSeconds = wallNanos / 1e9;
+        out.println(String.format(Locale.US, "Simulated ticks: %d in %.2f s on %d threads",
+                ticks, wallSeconds, threads));
+        out.println(String.format(Locale.US, "Ticks/s:         %.0f total, %.0f per thread",
+                ticks / wallSeconds, nanos == 0 ? 0 : ticks / (nanos / 1e9)));
+    }
+
+    private static void printShare(PrintStream out, String name, long count, int runs)
+    {
+        out.println(String.format(Locale.US, "  %-10s %8d  %5.1f%%", name, count, 100.0 * count / runs));
+    }
+
+    private static int percentile(int size, int percent)
+    {
+        return Math.min(size - 1, size * percent / 100);
+    }
+
+    private static double mean(float[] values)
+    {
+        double sum = 0;
+        for (float value : values)
+        {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double mean(int[] values)
+    {
+        double sum = 0;
+        for (int value : values)
+        {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+}
@@ -0,0 +1,55 @@
+package libgdx.thrust.copter.headless;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Счётчик байт, выделенных потоком. Работает на HotSpot,
+ * где {@code ThreadMXBean} реализует {@code com.sun.management.ThreadMXBean}.
+ */
+public class ThreadAllocation
+{
+    private static final com.sun.management.ThreadMXBean BEAN = findBean();
+
+    private ThreadAllocation()
+    {
+    }
+
+    private static com.sun.management.ThreadMXBean findBean()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+
+            if (sunBean.isThreadAllocatedMemorySupported())
+            {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+                return sunBean;
+            }
+        }
+
+        return null;
+    }
+
+    public static boolean isSupported()
+    {
+        return BEAN != null;
+    }
+
+    /**
+     * @return байт, выделенных текущим потоком с его запуска, или -1.
+     */
+    public static long current()
+    {
+        return BEAN == null ? -1 : BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return байт, выделенных потоком {@code thread} с его запуска, или -1.
+     */
+    public static long of(Thread thread)
+    {
+        return BEAN == null ? -1 : BEAN.getThreadAllocatedBytes(thread.getId());
+    }
+}
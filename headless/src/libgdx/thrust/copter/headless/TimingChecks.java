@@ -0,0 +1,257 @@
+package libgdx.thrust.copter.headless;
+
+import libgdx.thrust.copter.FixedTimestep;
+import libgdx.thrust.copter.PickupTypes;
+import libgdx.thrust.copter.QualityLevel;
+import libgdx.thrust.copter.QualityScaler;
+import libgdx.thrust.copter.Replay;
+import libgdx.thrust.copter.Simulation;
+import libgdx.thrust.copter.SpriteMetrics;
+import libgdx.thrust.copter.World;
+import libgdx.thrust.copter.WorldSettings;
+
+/**
+ * Проверки логики, завязанной на время кадров и событий, без окна,
+ * GPU и атласа: время задаётся числами, а не часами. Каждая проверка —
+ * сценарий из кадров и ожидаемый итог. Завершается с кодом 1,
+ * если хоть одна не прошла.
+ */
+public class TimingChecks
+{
+    private static final float TARGET = 1f / 60;
+
+    // Кадр раскладки касаний: 4.5 шага, то есть 4 шага и половина
+    // следующего, кончается в FRAME_END по часам симуляции.
+    private static final int TICK_RATE = 60;
+    private static final int FRAME_STEPS = 4;
+    private static final float FRAME_TIME = (FRAME_STEPS + 0.5f) / TICK_RATE;
+    private static final long FRAME_END = 1000000000000L;
+    private static final long STEP_NANOS = 1000000000L / TICK_RATE;
+
+    // Разница между nanoTime и часами с отсчётом от эпохи, около 54 лет
+    private static final long CLOCK_OFFSET = 1700000000000000000L;
+
+    private int failures;
+
+    public static void main(String[] args)
+    {
+        TimingChecks checks = new TimingChecks();
+
+        checks.vsyncedFramesUpgrade();
+        checks.busyFramesKeepLevel();
+        checks.slowWorkDowngrades();
+        checks.quickRollbackBacksOff();
+        checks.lateDowngradeKeepsDelay();
+        checks.heldUpgradeResetsDelay();
+        checks.futureTapLandsInFrame();
+        checks.staleTapLandsInFrame();
+        checks.mixedTapsKeepOrder();
+
+        if (checks.failures > 0)
+        {
+            System.out.println("FAILED: " + checks.failures + " checks");
+            System.exit(1);
+        }
+
+        System.out.println("OK");
+    }
+
+    /**
+     * При vsync кадр длится ровно целевое время, но работы в нём мало:
+     * уровень должен повышаться.
+     */
+    private void vsyncedFramesUpgrade()
+    {
+        QualityScaler scaler = new QualityScaler(TARGET, QualityLevel.LOW);
+
+        frames(scaler, 25, TARGET, 0.006f);
+
+        check("vsynced frames upgrade", scaler.getLevel() == QualityLevel.HIGH);
+    }
+
+    private void busyFramesKeepLevel()
+    {
+        QualityScaler scaler = new QualityScaler(TARGET, QualityLevel.LOW);
+
+        frames(scaler, 60, TARGET, TARGET);
+
+        check("busy frames keep level", scaler.getLevel() == QualityLevel.LOW);
+    }
+
+    private void slowWorkDowngrades()
+    {
+        QualityScaler scaler = new QualityScaler(TARGET, QualityLevel.HIGH);
+
+        frames(scaler, 2, 2 * TARGET, 0.03f);
+
+        check("slow work downgrades", scaler.getLevel() == QualityLevel.MEDIUM);
+    }
+
+    /**
+     * Повышение, откатившееся сразу, удваивает задержку следующего.
+     */
+    private void quickRollbackBacksOff()
+    {
+        QualityScaler scaler = upgradedScaler();
+
+        frames(scaler, 2, 2 * TARGET, 0.03f);
+
+        check("quick rollback downgrades", scaler.getLevel() == QualityLevel.MEDIUM);
+        check("quick rollback backs off", scaler.getUpgradeDelay() == 20);
+    }
+
+    /**
+     * Понижение много позже повышения — новая нагрузка, а не неудачное
+     * повышение: задержка не растёт.
+     */
+    private void lateDowngradeKeepsDelay()
+    {
+        QualityScaler scaler = upgradedScaler();
+
+        frames(scaler, 120, TARGET, 0.015f);
+        frames(scaler, 2, 2 * TARGET, 0.03f);
+
+        check("late downgrade downgrades", scaler.getLevel() == QualityLevel.MEDIUM);
+        check("late downgrade keeps delay", scaler.getUpgradeDelay() == 10);
+    }
+
+    /**
+     * После неудачного повышения задержка растёт, а повышение,
+     * продержавшееся испытательный срок, возвращает её к исходной.
+     */
+    private void heldUpgradeResetsDelay()
+    {
+        QualityScaler scaler = upgradedScaler();
+
+        frames(scaler, 2, 2 * TARGET, 0.03f);
+        frames(scaler, 25, TARGET, 0.006f);
+
+        check("backed-off upgrade happens", scaler.getLevel() == QualityLevel.HIGH);
+
+        frames(scaler, 40, TARGET, 0.015f);
+
+        check("held upgrade resets delay", scaler.getUpgradeDelay() == 10);
+    }
+
+    /**
+     * Часы событий спешат: касание всё равно уходит в этот кадр,
+     * последнему шагу, а не ждёт следующего.
+     */
+    private void futureTapLandsInFrame()
+    {
+        Replay replay = frameTaps(FRAME_END + 1000000000L);
+
+        check("future tap lands in frame", replay.getTapCount() == 1
+                && replay.getTapTick(0) == FRAME_STEPS - 1);
+    }
+
+    /**
+     * Время касания в другой шкале, задолго до прошлого кадра:
+     * касание уходит первому шагу, а не теряется.
+     */
+    private void staleTapLandsInFrame()
+    {
+        Replay replay = frameTaps(FRAME_END - CLOCK_OFFSET);
+
+        check("stale tap lands in frame", replay.getTapCount() == 1 && replay.getTapTick(0) == 0);
+    }
+
+    /**
+     * Старое, обычное и будущее касания одного кадра расходятся
+     * по разным шагам этого кадра в том же порядке.
+     */
+    private void mixedTapsKeepOrder()
+    {
+        Replay replay = frameTaps(FRAME_END - CLOCK_OFFSET,
+                FRAME_END - (long) (2.8f * STEP_NANOS),
+                FRAME_END + 1000000000L);
+
+        boolean ordered = replay.getTapCount() == 3;
+
+        for (int i = 0; ordered && i < 3; i++)
+        {
+            ordered = replay.getTapX(i) == i + 1 && replay.getTapTick(i) == (i == 0 ? 0 : i + 1);
+        }
+
+        check("mixed taps keep order", ordered);
+    }
+
+    /**
+     * Отдаёт касания с временами событий {@code eventTimes} симуляции
+     * и шагает один кадр. Касание {@code i} приходит в точке {@code (i + 1, 0)}.
+     *
+     * @return запись кадра: на каком шаге мир получил каждое касание.
+     */
+    private static Replay frameTaps(long... eventTimes)
+    {
+        World world = new World(syntheticMetrics(), PickupTypes.createDefault(), new WorldSettings(), 1);
+        Simulation simulation = new Simulation(world, new FixedTimestep(TICK_RATE, FRAME_STEPS + 1), null, false);
+
+        world.startRecording(TICK_RATE);
+
+        for (int i = 0; i < eventTimes.length; i++)
+        {
+            simulation.tap(i + 1, 0, eventTimes[i]);
+        }
+
+        simulation.update(FRAME_TIME, FRAME_END);
+        simulation.dispose();
+
+        return world.stopRecording();
+    }
+
+    /**
+     * @return размеры всех спрайтов мира без атласа; маски сплошные.
+     */
+    private static SpriteMetrics syntheticMetrics()
+    {
+        SpriteMetrics metrics = new SpriteMetrics();
+
+        for (String name : World.MASKED_REGIONS)
+        {
+            metrics.put(name, 64, 64);
+        }
+
+        metrics.put("star_pickup", 32, 32);
+        metrics.put("fuel_pickup", 32, 32);
+        metrics.put("shield_pickup", 32, 32);
+
+        return metrics;
+    }
+
+    /**
+     * @return скалер, только что поднявшийся со среднего уровня на высокий.
+     */
+    private static QualityScaler upgradedScaler()
+    {
+        QualityScaler scaler = new QualityScaler(TARGET, QualityLevel.MEDIUM);
+
+        while (scaler.getLevel() != QualityLevel.HIGH)
+        {
+            scaler.update(TARGET, 0.006f);
+        }
+
+        return scaler;
+    }
+
+    /**
+     * Кадры длиной {@code frameTime} с работой {@code workTime} в течение {@code seconds}.
+     */
+    private static void frames(QualityScaler scaler, float seconds, float frameTime, float workTime)
+    {
+        for (float time = 0; time < seconds; time += frameTime)
+        {
+            scaler.update(frameTime, workTime);
+        }
+    }
+
+    private void check(String name, boolean passed)
+    {
+        System.out.println((passed ? "ok    " : "FAIL  ") + name);
+
+        if (!passed)
+        {
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package java.lang;
+
+/**
+ * В эмуляции GWT 2.6 нет {@code StrictMath}, а ядро считает им
+ * затухание шага. В браузере у JavaScript одна реализация
+ * {@code Math.pow}, поэтому здесь она и используется.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+public final class StrictMath
+{
+    private StrictMath()
+    {
+    }
+
+    public static double pow(double x, double y)
+    {
+        return Math.pow(x, y);
+    }
+}
@@ -0,0 +1,39 @@
+package libgdx.thrust.copter;
+
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Эмуляция для GWT: потоков нет, задача выполняется прямо
+ * в {@link #submit()}, и поток никогда не занят.
+ *
+ * @author Skurishin Vladislav
+ * @since 06.05.15
+ */
+class SimulationThread implements Disposable
+{
+    private final Runnable task;
+
+    SimulationThread(Runnable task)
+    {
+        this.task = task;
+    }
+
+    void submit()
+    {
+        task.run();
+    }
+
+    boolean isBusy()
+    {
+        return false;
+    }
+
+    void await()
+    {
+    }
+
+    @Override
+    public void dispose()
+    {
+    }
+}